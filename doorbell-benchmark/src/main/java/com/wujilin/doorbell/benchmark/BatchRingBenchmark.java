@@ -0,0 +1,132 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.benchmark;
+
+import com.wujilin.doorbell.AbstractDoorbell;
+import com.wujilin.doorbell.Condition;
+import com.wujilin.doorbell.Door;
+import com.wujilin.doorbell.condition.Conditions;
+import com.wujilin.doorbell.door.ConditionDoor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks ringing the gated items of a menu in one batch versus one by one, where the doors
+ * combine a few shared conditions, e.g. logged in, vip and region.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchRingBenchmark {
+
+    /**
+     * The number of the shared conditions
+     */
+    private static final int CONDITION_COUNT = 6;
+
+    /**
+     * The CPU tokens to burn in each test of a shared condition
+     */
+    private static final long CONDITION_COST = 200;
+
+    /**
+     * The number of the doors
+     */
+    @Param({"20", "50"})
+    public int doorCount;
+
+    /**
+     * The doors to ring
+     */
+    private Door[] doors;
+
+    @Setup
+    public void setUp() {
+        Condition[] conditions = new Condition[CONDITION_COUNT];
+        for (int i = 0; i < CONDITION_COUNT; i++) {
+            conditions[i] = new CostlyCondition(i % 4 != 3);
+        }
+        doors = new Door[doorCount];
+        for (int i = 0; i < doorCount; i++) {
+            Condition first  = conditions[i % CONDITION_COUNT];
+            Condition second = conditions[(i / CONDITION_COUNT + i + 1) % CONDITION_COUNT];
+            doors[i]         = new ConditionDoor(Conditions.and(first, second));
+        }
+    }
+
+    @Benchmark
+    public BitSet ringAll() {
+        return AbstractDoorbell.ringAll(doors);
+    }
+
+    @Benchmark
+    public void ringOneByOne(Blackhole blackhole) {
+        for (Door door : doors) {
+            blackhole.consume(AbstractDoorbell.ring(door));
+        }
+    }
+
+    /**
+     * The condition burning a number of CPU tokens in each test.
+     */
+    private static final class CostlyCondition implements Condition {
+
+        /**
+         * The result of the test
+         */
+        private final boolean passed;
+
+        /**
+         * Constructs a new costly condition.
+         *
+         * @param passed The result of the test
+         */
+        CostlyCondition(boolean passed) {
+            this.passed = passed;
+        }
+
+        @Override
+        public boolean test() {
+            Blackhole.consumeCPU(CONDITION_COST);
+            return passed;
+        }
+    }
+}
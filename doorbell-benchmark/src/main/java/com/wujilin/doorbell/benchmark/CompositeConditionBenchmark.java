@@ -0,0 +1,148 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.benchmark;
+
+import com.wujilin.doorbell.Condition;
+import com.wujilin.doorbell.condition.CompositeCondition;
+import com.wujilin.doorbell.condition.Conditions;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the adaptive ordering of the composite conditions on a skewed workload, where the
+ * cheapest condition is the most decisive one but is given last.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompositeConditionBenchmark {
+
+    /**
+     * The condition tested in the given order
+     */
+    private CompositeCondition fixed;
+
+    /**
+     * The condition reordered by the measurement
+     */
+    private CompositeCondition adaptive;
+
+    @Setup
+    public void setUp() {
+        fixed    = allOf();
+        adaptive = allOf().adaptive();
+
+        // lets the adaptive condition measure and reorder before measuring
+        for (int i = 0; i < 4096; i++) {
+            adaptive.test();
+        }
+    }
+
+    @Benchmark
+    public boolean testFixed() {
+        return fixed.test();
+    }
+
+    @Benchmark
+    public boolean testAdaptive() {
+        return adaptive.test();
+    }
+
+    /**
+     * Combines the conditions from the most expensive and the least decisive to the cheapest and
+     * the most decisive.
+     *
+     * @return The composite condition
+     */
+    private static CompositeCondition allOf() {
+        Random random = new Random(42);
+        return Conditions.allOf(
+                new SkewedCondition(random, 400, 0.99),
+                new SkewedCondition(random, 400, 0.99),
+                new SkewedCondition(random, 100, 0.90),
+                new SkewedCondition(random, 10, 0.10));
+    }
+
+    /**
+     * The condition burning a number of CPU tokens and passed with a probability.
+     */
+    private static final class SkewedCondition implements Condition {
+
+        /**
+         * The number of the precomputed results, must be a power of two
+         */
+        private static final int RESULT_COUNT = 1024;
+
+        /**
+         * The CPU tokens to burn in each test
+         */
+        private final long cost;
+
+        /**
+         * The precomputed results
+         */
+        private final boolean[] results = new boolean[RESULT_COUNT];
+
+        /**
+         * The number of the tests
+         */
+        private int count;
+
+        /**
+         * Constructs a new skewed condition.
+         *
+         * @param random      The random to precompute the results
+         * @param cost        The CPU tokens to burn in each test
+         * @param probability The probability to pass
+         */
+        SkewedCondition(Random random, long cost, double probability) {
+            this.cost = cost;
+            for (int i = 0; i < RESULT_COUNT; i++) {
+                results[i] = random.nextDouble() < probability;
+            }
+        }
+
+        @Override
+        public boolean test() {
+            Blackhole.consumeCPU(cost);
+            return results[count++ & (RESULT_COUNT - 1)];
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.benchmark;
+
+import com.wujilin.doorbell.Condition;
+import com.wujilin.doorbell.condition.CompositeCondition;
+import com.wujilin.doorbell.condition.Conditions;
+import com.wujilin.doorbell.condition.ParallelCondition;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Benchmarks testing 5 independent slow conditions combined by AND in parallel, compared to the
+ * sequential equivalent. The conditions wait like the checks reading the caches or the disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelConditionBenchmark {
+
+    /**
+     * The number of the conditions combined
+     */
+    private static final int CONDITION_COUNT = 5;
+
+    /**
+     * The microseconds each condition waits
+     */
+    @Param({"50", "500"})
+    public long latencyMicros;
+
+    /**
+     * The index of the blocked condition, or <code>-1</code> if all of them passed
+     */
+    @Param({"-1", "0", "4"})
+    public int blockedIndex;
+
+    /**
+     * The conditions tested one by one
+     */
+    private CompositeCondition sequential;
+
+    /**
+     * The conditions tested concurrently
+     */
+    private ParallelCondition parallel;
+
+    @Setup
+    public void setUp() {
+        Condition[] conditions = new Condition[CONDITION_COUNT];
+        for (int i = 0; i < CONDITION_COUNT; i++) {
+            conditions[i] = new SlowCondition(TimeUnit.MICROSECONDS.toNanos(latencyMicros), i != blockedIndex);
+        }
+        sequential = Conditions.allOf(conditions);
+        parallel   = Conditions.allOf(conditions).parallel();
+    }
+
+    @Benchmark
+    public boolean testSequential() {
+        return sequential.test();
+    }
+
+    @Benchmark
+    public boolean testParallel() {
+        return parallel.test();
+    }
+
+    /**
+     * The condition waits for a while and then returns the result.
+     */
+    private static final class SlowCondition implements Condition {
+
+        /**
+         * The nanoseconds to wait
+         */
+        private final long latencyNanos;
+
+        /**
+         * The result of the test
+         */
+        private final boolean passed;
+
+        /**
+         * Constructs a new slow condition.
+         *
+         * @param latencyNanos The nanoseconds to wait
+         * @param passed       The result of the test
+         */
+        SlowCondition(long latencyNanos, boolean passed) {
+            this.latencyNanos = latencyNanos;
+            this.passed       = passed;
+        }
+
+        @Override
+        public boolean test() {
+            LockSupport.parkNanos(latencyNanos);
+            return passed;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.benchmark;
+
+import com.wujilin.doorbell.payload.PayloadStore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks launching with a 1 MB payload handed off by the payload store, compared to a
+ * serializable extra, which is written and read by the object streams like
+ * <code>Parcel.writeSerializable</code> and <code>Parcel.readSerializable</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadBenchmark {
+
+    /**
+     * The bytes of the payload
+     */
+    private static final int PAYLOAD_BYTES = 1024 * 1024;
+
+    /**
+     * The bytes of a record of the payload of records
+     */
+    private static final int RECORD_BYTES = 64;
+
+    /**
+     * The shape of the payload, a single byte array or a list of small records
+     */
+    @Param({"array", "records"})
+    public String shape;
+
+    /**
+     * The payload to launch with
+     */
+    private Serializable payload;
+
+    /**
+     * The estimated bytes of the payload
+     */
+    private long size;
+
+    /**
+     * The store to hand the payload off
+     */
+    private PayloadStore store;
+
+    @Setup
+    public void setUp() {
+        if ("array".equals(shape)) {
+            payload = new byte[PAYLOAD_BYTES];
+        } else {
+            ArrayList<Record> records = new ArrayList<>(PAYLOAD_BYTES / RECORD_BYTES);
+            for (int i = 0; i < PAYLOAD_BYTES / RECORD_BYTES; i++) {
+                records.add(new Record(i));
+            }
+            payload = records;
+        }
+        size  = PAYLOAD_BYTES;
+        store = new PayloadStore();
+    }
+
+    @Benchmark
+    public Object handOff() {
+        long token     = store.put(payload, size);
+        Object handed = store.get(token);
+        store.remove(token);
+        return handed;
+    }
+
+    @Benchmark
+    public Object serialize() throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream output   = new ObjectOutputStream(bytes);
+        output.writeObject(payload);
+        output.close();
+        ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        try {
+            return input.readObject();
+        } finally {
+            input.close();
+        }
+    }
+
+    /**
+     * The record of 64 bytes of the payload.
+     */
+    private static final class Record implements Serializable {
+
+        /**
+         * The version of the serialized form
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The ID of the record
+         */
+        private final long id;
+
+        /**
+         * The fields of the record
+         */
+        private final long[] fields = new long[(RECORD_BYTES - 8) / 8];
+
+        /**
+         * Constructs a new record.
+         *
+         * @param id The ID of the record
+         */
+        Record(long id) {
+            this.id = id;
+        }
+    }
+}
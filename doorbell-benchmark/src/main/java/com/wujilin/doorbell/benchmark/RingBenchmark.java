@@ -0,0 +1,123 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.benchmark;
+
+import com.wujilin.doorbell.AbstractDoorbell;
+import com.wujilin.doorbell.Condition;
+import com.wujilin.doorbell.Door;
+import com.wujilin.doorbell.RingListener;
+import com.wujilin.doorbell.RingPlan;
+import com.wujilin.doorbell.SimpleRingListener;
+import com.wujilin.doorbell.door.SimpleDoor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the overhead of ringing a door, building and ringing a doorbell, and ringing a plan.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RingBenchmark {
+
+    /**
+     * Whether the door is passed
+     */
+    @Param({"true", "false"})
+    public boolean passed;
+
+    /**
+     * The door to ring
+     */
+    private Door door;
+
+    /**
+     * The condition to ring
+     */
+    private Condition condition;
+
+    /**
+     * The listener to be notified
+     */
+    private RingListener listener;
+
+    /**
+     * The plan of the door
+     */
+    private RingPlan plan;
+
+    @Setup
+    public void setUp() {
+        final boolean passed = this.passed;
+        door = new SimpleDoor() {
+            @Override
+            public boolean test() {
+                return passed;
+            }
+        };
+        condition = new Condition() {
+            @Override
+            public boolean test() {
+                return passed;
+            }
+        };
+        listener = new SimpleRingListener();
+        plan     = AbstractDoorbell.create(door).plan(listener);
+    }
+
+    @Benchmark
+    public boolean ringDoor() {
+        return AbstractDoorbell.ring(door);
+    }
+
+    @Benchmark
+    public void createDoorAndRing() {
+        AbstractDoorbell.create(door).ring(listener);
+    }
+
+    @Benchmark
+    public void createConditionAndRing() {
+        AbstractDoorbell.create(condition).ring(listener);
+    }
+
+    @Benchmark
+    public boolean ringPlan() {
+        return plan.ring();
+    }
+}
@@ -0,0 +1,135 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.benchmark;
+
+import com.wujilin.doorbell.Door;
+import com.wujilin.doorbell.route.RouteEntry;
+import com.wujilin.doorbell.route.UriMatch;
+import com.wujilin.doorbell.route.UriRouter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Benchmarks matching the deep links against 1,000 registered patterns by the trie of the
+ * {@link UriRouter}, compared to trying the regular expressions of the patterns one by one like a
+ * chain of if/else.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UriRouterBenchmark {
+
+    /**
+     * The number of the patterns registered
+     */
+    private static final int PATTERN_COUNT = 1000;
+
+    /**
+     * The path to match, matching the first or the last pattern registered, or none of them
+     */
+    @Param({"first", "last", "miss"})
+    public String target;
+
+    /**
+     * The router of the patterns
+     */
+    private UriRouter router;
+
+    /**
+     * The regular expressions of the patterns, in the order of registration
+     */
+    private Pattern[] patterns;
+
+    /**
+     * The path to match
+     */
+    private String path;
+
+    @Setup
+    public void setUp() {
+        router   = new UriRouter();
+        patterns = new Pattern[PATTERN_COUNT];
+        for (int i = 0; i < PATTERN_COUNT; i++) {
+            RouteEntry route = new RouteEntry("com.example.Activity" + i, new Door[0], 0, 0);
+            switch (i % 4) {
+                case 0:
+                    router.register("example.com/section" + i + "/item/{id:long}", route);
+                    patterns[i] = Pattern.compile("example\\.com/section" + i + "/item/(-?\\d+)");
+                    break;
+                case 1:
+                    router.register("example.com/section" + i + "/{name}/detail", route);
+                    patterns[i] = Pattern.compile("example\\.com/section" + i + "/([^/]+)/detail");
+                    break;
+                case 2:
+                    router.register("example.com/section" + i + "/*/{page:int}", route);
+                    patterns[i] = Pattern.compile("example\\.com/section" + i + "/[^/]+/(-?\\d+)");
+                    break;
+                default:
+                    router.register("example.com/section" + i + "/**", route);
+                    patterns[i] = Pattern.compile("example\\.com/section" + i + "(/.*)?");
+                    break;
+            }
+        }
+        if ("first".equals(target)) {
+            path = "example.com/section0/item/42";
+        } else if ("last".equals(target)) {
+            path = "example.com/section" + (PATTERN_COUNT - 1) + "/search/shoes";
+        } else {
+            path = "example.com/missing/item/42";
+        }
+    }
+
+    @Benchmark
+    public UriMatch matchTrie() {
+        return router.match(path);
+    }
+
+    @Benchmark
+    public Matcher matchLinear() {
+        for (Pattern pattern : patterns) {
+            Matcher matcher = pattern.matcher(path);
+            if (matcher.matches()) {
+                return matcher;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,287 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.compiler;
+
+import com.wujilin.doorbell.route.Route;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * The annotation processor to generate the route table of a module from the {@link Route}
+ * annotations. <br /><br />
+ *
+ * The table is generated as <code>com.wujilin.doorbell.route.&lt;Module&gt;RouteTable</code>, the
+ * module is given by the <code>doorbell.module</code> option, <code>App</code> by default. The
+ * routes are found by a string switch, and the activities are referenced by the class names, so
+ * neither reflection nor class loading of the activities is needed until started. The entries of
+ * the routes are created once when found for the first time. <br /><br />
+ *
+ * The table is generated in the first round which finds the routes, so that it is compiled with the
+ * other sources, the routes must not be declared by the sources generated in the later rounds.
+ */
+public class RouteProcessor extends AbstractProcessor {
+
+    /**
+     * The option of the module name
+     */
+    static final String OPTION_MODULE = "doorbell.module";
+
+    /**
+     * The default module name
+     */
+    static final String DEFAULT_MODULE = "App";
+
+    /**
+     * The package of the generated tables
+     */
+    static final String PACKAGE = "com.wujilin.doorbell.route";
+
+    /**
+     * The routes found, in the order of the names
+     */
+    private final Map<String, RouteModel> routes = new LinkedHashMap<String, RouteModel>();
+
+    /**
+     * Whether the table has been generated
+     */
+    private boolean generated;
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(Route.class.getCanonicalName());
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return Collections.singleton(OPTION_MODULE);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment env) {
+        Set<? extends Element> elements = env.getElementsAnnotatedWith(Route.class);
+        if (elements.isEmpty()) {
+            return true;
+        }
+        if (generated) {
+            for (Element element : elements) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "@Route must not annotate the sources generated after the route table.", element);
+            }
+            return true;
+        }
+        for (Element element : elements) {
+            collect(element);
+        }
+        if (!routes.isEmpty()) {
+            generated = true;
+            generate();
+        }
+        return true;
+    }
+
+    /**
+     * Collects the route of the annotated element.
+     *
+     * @param element The annotated element
+     */
+    private void collect(Element element) {
+        Messager messager = processingEnv.getMessager();
+        if (element.getKind() != ElementKind.CLASS || element.getModifiers().contains(Modifier.ABSTRACT)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "@Route must annotate a concrete activity class.", element);
+            return;
+        }
+        TypeElement type = (TypeElement) element;
+        Route route      = type.getAnnotation(Route.class);
+        String name      = route.value();
+        if (name.isEmpty()) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "The name of the route must not be empty.", element);
+            return;
+        }
+        if (routes.containsKey(name)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Duplicate route \"" + name + "\", already declared by "
+                    + routes.get(name).className + ".", element);
+            return;
+        }
+        List<String> doors = new ArrayList<String>();
+        for (TypeElement door : getDoors(type)) {
+            if (!isInstantiable(door)) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "The door " + door.getQualifiedName()
+                        + " must be a public class with a public constructor without parameters.", element);
+                return;
+            }
+            doors.add(door.getQualifiedName().toString());
+        }
+        String className = processingEnv.getElementUtils().getBinaryName(type).toString();
+        routes.put(name, new RouteModel(className, doors, route.enter(), route.exit()));
+    }
+
+    /**
+     * Returns the door classes of the route, read from the annotation mirror since the classes
+     * may not be compiled yet.
+     *
+     * @param type The annotated type
+     * @return The door classes
+     */
+    private List<TypeElement> getDoors(TypeElement type) {
+        List<TypeElement> doors = new ArrayList<TypeElement>();
+        for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+            if (!Route.class.getCanonicalName().equals(mirror.getAnnotationType().toString())) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                    : mirror.getElementValues().entrySet()) {
+                if (!"doors".equals(entry.getKey().getSimpleName().toString())) {
+                    continue;
+                }
+                @SuppressWarnings("unchecked")
+                List<? extends AnnotationValue> values = (List<? extends AnnotationValue>) entry.getValue().getValue();
+                for (AnnotationValue value : values) {
+                    TypeMirror mirrorType = (TypeMirror) value.getValue();
+                    doors.add((TypeElement) ((DeclaredType) mirrorType).asElement());
+                }
+            }
+        }
+        return doors;
+    }
+
+    /**
+     * Test if the door can be instantiated by the generated table.
+     *
+     * @param door The door class
+     * @return <code>true</code> if instantiable, otherwise <code>false</code>.
+     */
+    private static boolean isInstantiable(TypeElement door) {
+        Set<Modifier> modifiers = door.getModifiers();
+        if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.ABSTRACT)) {
+            return false;
+        }
+        if (door.getNestingKind().isNested() && !modifiers.contains(Modifier.STATIC)) {
+            return false;
+        }
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(door.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Generates the route table.
+     */
+    private void generate() {
+        String module = processingEnv.getOptions().get(OPTION_MODULE);
+        if (module == null || module.isEmpty()) {
+            module = DEFAULT_MODULE;
+        }
+        String simpleName = Character.toUpperCase(module.charAt(0)) + module.substring(1) + "RouteTable";
+        if (!SourceVersion.isIdentifier(simpleName)) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "The module \"" + module + "\" is not a valid part of a class name.");
+            return;
+        }
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(PACKAGE + "." + simpleName);
+            Writer writer       = file.openWriter();
+            try {
+                writer.write(RouteTableWriter.write(PACKAGE, simpleName, routes));
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to generate " + simpleName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * The class represents a route collected.
+     */
+    static final class RouteModel {
+
+        /**
+         * The binary class name of the activity
+         */
+        final String className;
+
+        /**
+         * The qualified names of the door classes
+         */
+        final List<String> doors;
+
+        /**
+         * The default animation resource to use for the incoming activity
+         */
+        final int enter;
+
+        /**
+         * The default animation resource to use for the outgoing activity
+         */
+        final int exit;
+
+        /**
+         * Constructs a new route model.
+         *
+         * @param className The binary class name of the activity
+         * @param doors     The qualified names of the door classes
+         * @param enter     The default animation resource to use for the incoming activity
+         * @param exit      The default animation resource to use for the outgoing activity
+         */
+        RouteModel(String className, List<String> doors, int enter, int exit) {
+            this.className = className;
+            this.doors     = doors;
+            this.enter     = enter;
+            this.exit      = exit;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.compiler;
+
+import java.util.Map;
+
+/**
+ * The class writes the source of a route table.
+ */
+final class RouteTableWriter {
+
+    /**
+     * Preventing from constructing.
+     */
+    private RouteTableWriter() {
+    }
+
+    /**
+     * Writes the source of the route table. Each route is a static constant of its own holder
+     * class, so the entry and its doors are created once when the route is found for the first
+     * time, and the table itself is loaded without creating any of them.
+     *
+     * @param packageName The package of the table
+     * @param simpleName  The simple name of the table
+     * @param routes      The routes by the names
+     * @return The source
+     */
+    static String write(String packageName, String simpleName, Map<String, RouteProcessor.RouteModel> routes) {
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(packageName).append(";\n\n")
+                .append("import com.wujilin.doorbell.Door;\n\n")
+                .append("/**\n")
+                .append(" * The route table generated by the doorbell compiler, do not modify.\n")
+                .append(" */\n")
+                .append("public final class ").append(simpleName).append(" implements RouteTable {\n\n")
+                .append("    @Override\n")
+                .append("    public RouteEntry find(String name) {\n")
+                .append("        switch (name) {\n");
+        int index = 0;
+        for (String name : routes.keySet()) {
+            source.append("            case ").append(literal(name)).append(":\n")
+                    .append("                return Route").append(index++).append(".ENTRY;\n");
+        }
+        source.append("            default:\n")
+                .append("                return null;\n")
+                .append("        }\n")
+                .append("    }\n");
+        index = 0;
+        for (RouteProcessor.RouteModel route : routes.values()) {
+            source.append("\n")
+                    .append("    private static final class Route").append(index++).append(" {\n")
+                    .append("        static final RouteEntry ENTRY = new RouteEntry(").append(literal(route.className))
+                    .append(", new Door[]{");
+            for (int i = 0; i < route.doors.size(); i++) {
+                source.append(i == 0 ? " " : ", ").append("new ").append(route.doors.get(i)).append("()");
+            }
+            source.append(route.doors.isEmpty() ? "}, " : " }, ")
+                    .append(route.enter).append(", ").append(route.exit).append(");\n")
+                    .append("    }\n");
+        }
+        source.append("}\n");
+        return source.toString();
+    }
+
+    /**
+     * Returns the Java string literal of the value.
+     *
+     * @param value The value
+     * @return The string literal
+     */
+    private static String literal(String value) {
+        StringBuilder literal = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    literal.append("\\\"");
+                    break;
+                case '\\':
+                    literal.append("\\\\");
+                    break;
+                case '\n':
+                    literal.append("\\n");
+                    break;
+                case '\r':
+                    literal.append("\\r");
+                    break;
+                case '\t':
+                    literal.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        literal.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        literal.append(c);
+                    }
+                    break;
+            }
+        }
+        return literal.append('"').toString();
+    }
+}
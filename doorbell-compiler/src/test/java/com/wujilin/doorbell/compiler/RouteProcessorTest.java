@@ -0,0 +1,205 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.compiler;
+
+import com.wujilin.doorbell.route.RouteEntry;
+import com.wujilin.doorbell.route.RouteTable;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the route processor by compiling the annotated sources with the system compiler.
+ */
+public class RouteProcessorTest {
+
+    /**
+     * The source of an activity with a door, the class initializers record the loading
+     */
+    private static final String HOME = "package test;\n"
+            + "@com.wujilin.doorbell.route.Route(value = \"home\", doors = HomeDoor.class)\n"
+            + "public class Home {\n"
+            + "    static { System.setProperty(\"test.home.loaded\", \"true\"); }\n"
+            + "}\n";
+
+    /**
+     * The source of the door of the activity
+     */
+    private static final String HOME_DOOR = "package test;\n"
+            + "public class HomeDoor extends com.wujilin.doorbell.door.SimpleDoor {\n"
+            + "    static { System.setProperty(\"test.door.loaded\", \"true\"); }\n"
+            + "}\n";
+
+    /**
+     * The source of an activity without doors
+     */
+    private static final String ABOUT = "package test;\n"
+            + "@com.wujilin.doorbell.route.Route(\"about\")\n"
+            + "public class About {\n"
+            + "}\n";
+
+    /**
+     * The directory of the compiled classes and the generated sources
+     */
+    private File output;
+
+    @Before
+    public void setUp() throws IOException {
+        output = Files.createTempDirectory("doorbell-compiler").toFile();
+        System.clearProperty("test.home.loaded");
+        System.clearProperty("test.door.loaded");
+    }
+
+    @After
+    public void tearDown() {
+        delete(output);
+    }
+
+    @Test
+    public void generateTableInFirstRoundWithoutWarnings() throws IOException {
+        List<Diagnostic<? extends JavaFileObject>> diagnostics = compile();
+        assertEquals(diagnostics.toString(), 0, diagnostics.size());
+        String table = new String(Files.readAllBytes(
+                new File(output, "com/wujilin/doorbell/route/AppRouteTable.java").toPath()), Charset.forName("UTF-8"));
+        assertTrue(table.contains("switch (name)"));
+        assertFalse(table.contains("Class.forName"));
+        assertFalse(table.contains("ServiceLoader"));
+        assertFalse(table.contains("getResources"));
+    }
+
+    @Test
+    public void loadTableWithoutLoadingRoutes() throws Exception {
+        compile();
+        URLClassLoader loader = new URLClassLoader(new URL[]{ output.toURI().toURL() },
+                RouteProcessorTest.class.getClassLoader());
+        try {
+            RouteTable table = (RouteTable) loader.loadClass("com.wujilin.doorbell.route.AppRouteTable").newInstance();
+            assertNull(table.find("missing"));
+            assertNull(System.getProperty("test.door.loaded"));
+
+            RouteEntry about = table.find("about");
+            assertEquals("test.About", about.getClassName());
+            assertEquals(0, about.getDoors().length);
+            assertNull(System.getProperty("test.door.loaded"));
+
+            RouteEntry home = table.find("home");
+            assertEquals("test.Home", home.getClassName());
+            assertEquals(1, home.getDoors().length);
+            assertEquals("true", System.getProperty("test.door.loaded"));
+            assertNull(System.getProperty("test.home.loaded"));
+            assertSame(home, table.find("home"));
+        } finally {
+            loader.close();
+        }
+    }
+
+    /**
+     * Compiles the sources with the route processor.
+     *
+     * @return The diagnostics other than notes
+     */
+    private List<Diagnostic<? extends JavaFileObject>> compile() throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertNotNull("No system compiler", compiler);
+        DiagnosticCollector<JavaFileObject> collector = new DiagnosticCollector<JavaFileObject>();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(collector, Locale.ROOT, null);
+        try {
+            List<String> options = Arrays.asList("-classpath", System.getProperty("java.class.path"),
+                    "-d", output.getPath(), "-s", output.getPath());
+            List<JavaFileObject> sources = Arrays.asList(source("test.Home", HOME),
+                    source("test.HomeDoor", HOME_DOOR), source("test.About", ABOUT));
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, collector, options, null, sources);
+            task.setProcessors(Arrays.asList(new RouteProcessor()));
+            assertTrue(collector.getDiagnostics().toString(), task.call());
+        } finally {
+            fileManager.close();
+        }
+        List<Diagnostic<? extends JavaFileObject>> diagnostics = new ArrayList<Diagnostic<? extends JavaFileObject>>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : collector.getDiagnostics()) {
+            if (diagnostic.getKind() != Diagnostic.Kind.NOTE) {
+                diagnostics.add(diagnostic);
+            }
+        }
+        return diagnostics;
+    }
+
+    /**
+     * Creates a source in memory.
+     *
+     * @param className The qualified name of the class
+     * @param content   The content of the source
+     * @return The source
+     */
+    private static JavaFileObject source(String className, final String content) {
+        return new SimpleJavaFileObject(new File(className.replace('.', '/') + ".java").toURI(),
+                JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return content;
+            }
+        };
+    }
+
+    /**
+     * Deletes the file or the directory recursively.
+     *
+     * @param file The file to delete
+     */
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
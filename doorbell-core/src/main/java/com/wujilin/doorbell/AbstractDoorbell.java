@@ -0,0 +1,882 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell;
+
+import com.wujilin.doorbell.condition.ConditionBatch;
+import com.wujilin.doorbell.door.ConditionDoor;
+import com.wujilin.doorbell.metrics.RingMetrics;
+import com.wujilin.doorbell.trace.RingTracer;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static com.wujilin.doorbell.condition.Conditions.CONDITION_TRUE;
+import static com.wujilin.doorbell.condition.Conditions.valueOf;
+import static com.wujilin.doorbell.metrics.RingMetrics.PHASE_ALLOW;
+import static com.wujilin.doorbell.metrics.RingMetrics.PHASE_BLOCK;
+import static com.wujilin.doorbell.metrics.RingMetrics.PHASE_COMPLETE;
+import static com.wujilin.doorbell.metrics.RingMetrics.PHASE_TEST;
+import static com.wujilin.doorbell.util.Objects.requireNonNull;
+
+/**
+ * The abstract class represents the requests to be sent like a doorbell can be rung, without any
+ * dependency on Android. <br /><br />
+ *
+ * The doorbells can be rung from any thread. The builders are not thread-safe and must be used by
+ * one thread, while the doorbells and the ring plans built are immutable and can be shared. The
+ * global settings, such as the executors, the metrics and the interceptors, are published safely
+ * to all threads. A doorbell which must call its callbacks on a certain thread, such as starting
+ * the activities on the main thread, hands them off to the callback executor when rung from other
+ * threads. <br /><br />
+ *
+ * @see CallbackDoorbell
+ */
+public abstract class AbstractDoorbell {
+
+    /**
+     * The empty interceptors
+     */
+    private static final Interceptor[] NO_INTERCEPTORS = new Interceptor[0];
+
+    /**
+     * The default executor to test the conditions asynchronously
+     */
+    private static volatile Executor defaultExecutor;
+
+    /**
+     * The executor to call the callbacks of the asynchronous ringing
+     */
+    private static volatile Executor callbackExecutor;
+
+    /**
+     * The probe of the metrics and the tracer, or <code>null</code> if both disabled
+     */
+    private static volatile RingProbe probe;
+
+    /**
+     * The global interceptors, copied on registration
+     */
+    private static volatile Interceptor[] globalInterceptors = NO_INTERCEPTORS;
+
+    /**
+     * The condition of the doorbell
+     */
+    private final Condition condition;
+
+    /**
+     * The door get involved
+     */
+    private final Door involvedDoor;
+
+    /**
+     * The executor to test the condition, or <code>null</code> if ringing synchronously
+     */
+    private final Executor executor;
+
+    /**
+     * The nanoseconds to park the blocked rings, or <code>0</code> if not parked
+     */
+    private final long parkNanos;
+
+    /**
+     * The interceptors of the doorbell
+     */
+    private final Interceptor[] interceptors;
+
+    /**
+     * Constructs a new doorbell.
+     *
+     * @param builder The builder to build the doorbell
+     */
+    protected AbstractDoorbell(Builder builder) {
+        this.condition    = builder.condition;
+        this.involvedDoor = builder.involvedDoor;
+        this.executor     = builder.executor != null || !isAsync() ? builder.executor : getDefaultExecutor();
+        this.parkNanos    = builder.parkNanos;
+        this.interceptors = builder.interceptors;
+    }
+
+    /**
+     * Ring the doorbell.
+     *
+     * @param listener The listener to be notified when ringing
+     * @return <code>true</code> if the doorbell is allowed to ring, otherwise <code>false</code>.
+     * Always <code>false</code> when ringing asynchronously.
+     */
+    final boolean ring(RingListener listener) {
+        if (executor != null) {
+            executor.execute(new AsyncRing(this, listener));
+            return false;
+        }
+        RingChain chain = newChain();
+        return dispatch(test(chain), listener, chain);
+    }
+
+    /**
+     * Calls the callbacks with the result of the condition, or hands them off to the callback
+     * executor if not on the dispatch thread.
+     *
+     * @param passed   The result of the condition
+     * @param listener The listener to be notified when ringing
+     * @param chain    The chain of the interceptors tested, or <code>null</code> if no interceptors
+     * @return The result of the condition, or <code>false</code> if handed off
+     */
+    final boolean dispatch(boolean passed, RingListener listener, RingChain chain) {
+        if (!isDispatchThread()) {
+            Executor callbackExecutor = AbstractDoorbell.callbackExecutor;
+            if (callbackExecutor != null) {
+                callbackExecutor.execute(new AsyncRing(this, listener, passed, chain));
+                return false;
+            }
+        }
+        return deliver(passed, listener, chain);
+    }
+
+    /**
+     * Calls the callbacks with the result of the condition on the current thread. The onBlock
+     * callback of the involved door is called only if the door itself is blocked, not if an
+     * interceptor blocked the ringing before testing the door. The callbacks of the doors tested by
+     * the interceptors, such as the doors of a route, are called here too, never on the thread
+     * testing the condition. Only the ringing blocked by the door itself is parked. A passed ringing
+     * is dropped quietly if {@link #onPass()} refuses it.
+     *
+     * @param passed   The result of the condition
+     * @param listener The listener to be notified when ringing
+     * @param chain    The chain of the interceptors tested, or <code>null</code> if no interceptors
+     * @return The result of the condition
+     */
+    final boolean deliver(boolean passed, RingListener listener, RingChain chain) {
+        if (!passed) {
+            callOnBlock(listener, chain);
+            if (parkNanos > 0 && (chain == null || chain.isDoorBlocked())) {
+                ParkedRings.park(this, listener, parkNanos);
+                onPark();
+            }
+            return false;
+        }
+        if (!onPass()) {
+            return false;
+        }
+        callOnAllow(listener, chain);
+        callOnComplete(listener, chain);
+        return true;
+    }
+
+    /**
+     * Test if the condition or the involved door must be tested asynchronously.
+     *
+     * @return <code>true</code> if asynchronously, otherwise <code>false</code>.
+     */
+    private boolean isAsync() {
+        if (involvedDoor != null) {
+            return involvedDoor instanceof AsyncCondition;
+        }
+        return condition instanceof AsyncCondition;
+    }
+
+    /**
+     * Creates the chain of the interceptors for a ringing.
+     *
+     * @return The chain, or <code>null</code> if no interceptors
+     */
+    final RingChain newChain() {
+        Interceptor[] globals = globalInterceptors;
+        if (globals.length == 0 && interceptors.length == 0) {
+            return null;
+        }
+        return new RingChain(this, globals, interceptors);
+    }
+
+    /**
+     * Tests the condition of the doorbell, the involved door takes precedence if given.
+     *
+     * @param chain The chain of the interceptors to call before testing the door, or
+     *              <code>null</code> to test the door directly
+     * @return <code>true</code> if passed, otherwise <code>false</code>.
+     */
+    final boolean test(RingChain chain) {
+        RingProbe probe = AbstractDoorbell.probe;
+        if (probe == null) {
+            return chain == null ? getDoor().test() : chain.proceed();
+        }
+        long start     = probe.begin(getDoor(), PHASE_TEST);
+        boolean passed = false;
+        try {
+            passed = chain == null ? getDoor().test() : chain.proceed();
+            return passed;
+        } finally {
+            // ends the phase even if thrown, which is recorded as blocked
+            probe.endTest(getDoor(), passed, start);
+        }
+    }
+
+    /**
+     * Returns the involved door, or the condition if no door involved.
+     *
+     * @return The door or the condition of the doorbell
+     */
+    protected final Condition getDoor() {
+        return involvedDoor != null ? involvedDoor : condition;
+    }
+
+    /**
+     * Calls the onBlock callbacks.
+     *
+     * @param listener The listener to be notified
+     * @param chain    The chain of the interceptors tested, or <code>null</code> if no interceptors
+     */
+    private void callOnBlock(RingListener listener, RingChain chain) {
+        RingProbe probe = AbstractDoorbell.probe;
+        long start      = probe == null ? 0 : probe.begin(getDoor(), PHASE_BLOCK);
+        try {
+            Door blockedDoor = chain == null ? null : chain.getBlockedDoor();
+            if (blockedDoor != null) {
+                blockedDoor.onBlock();
+            }
+            if (involvedDoor != null && (chain == null || chain.isDoorBlocked())) {
+                involvedDoor.onBlock();
+            }
+            listener.onBlock();
+        } finally {
+            if (probe != null) {
+                probe.end(getDoor(), PHASE_BLOCK, start);
+            }
+        }
+    }
+
+    /**
+     * Calls the onAllow callbacks.
+     *
+     * @param listener The listener to be notified
+     * @param chain    The chain of the interceptors tested, or <code>null</code> if no interceptors
+     */
+    private void callOnAllow(RingListener listener, RingChain chain) {
+        RingProbe probe = AbstractDoorbell.probe;
+        long start      = probe == null ? 0 : probe.begin(getDoor(), PHASE_ALLOW);
+        try {
+            if (chain != null) {
+                for (Door door : chain.getPassedDoors()) {
+                    door.onAllow();
+                }
+            }
+            if (involvedDoor != null) {
+                involvedDoor.onAllow();
+            }
+            listener.onAllow();
+            onAllow(chain == null ? null : chain.getCreatedTarget());
+        } finally {
+            if (probe != null) {
+                probe.end(getDoor(), PHASE_ALLOW, start);
+            }
+        }
+    }
+
+    /**
+     * Calls the onComplete callbacks.
+     *
+     * @param listener The listener to be notified
+     * @param chain    The chain of the interceptors tested, or <code>null</code> if no interceptors
+     */
+    private void callOnComplete(RingListener listener, RingChain chain) {
+        RingProbe probe = AbstractDoorbell.probe;
+        long start      = probe == null ? 0 : probe.begin(getDoor(), PHASE_COMPLETE);
+        try {
+            if (chain != null) {
+                for (Door door : chain.getPassedDoors()) {
+                    door.onComplete();
+                }
+            }
+            if (involvedDoor != null) {
+                involvedDoor.onComplete();
+            }
+            listener.onComplete();
+        } finally {
+            if (probe != null) {
+                probe.end(getDoor(), PHASE_COMPLETE, start);
+            }
+        }
+    }
+
+    /**
+     * Creates a new target of a ringing for the interceptors to modify in place, called at most
+     * once per ringing and only if an interceptor asks for it. The modified target is passed to
+     * {@link #onAllow(Object)} of that ringing only.
+     *
+     * @return The new target, or <code>null</code> if no target
+     * @see Interceptor.Chain#getTarget()
+     */
+    protected Object newTarget() {
+        return null;
+    }
+
+    /**
+     * Called after the condition is passed and before calling the onAllow callbacks, so a ringing
+     * blocked by the condition never reaches here.
+     *
+     * @return <code>true</code> to continue, otherwise <code>false</code> to drop the ringing quietly.
+     */
+    protected boolean onPass() {
+        return true;
+    }
+
+    /**
+     * Called when a blocked ringing of this doorbell is parked, e.g. to drop the parked rings by
+     * {@link #isCancelled()} when the owner of the doorbell is destroyed.
+     */
+    protected void onPark() {
+        // do nothing
+    }
+
+    /**
+     * Called when this doorbell is allowed to ring.
+     */
+    protected void onAllow() {
+        // do nothing
+    }
+
+    /**
+     * Called when this doorbell is allowed to ring, with the target of the ringing modified by the
+     * interceptors. Calls {@link #onAllow()} by default.
+     *
+     * @param target The target created by {@link #newTarget()} for this ringing, or
+     *               <code>null</code> if no interceptor asked for it
+     */
+    protected void onAllow(Object target) {
+        onAllow();
+    }
+
+    /**
+     * Test if the current thread can call the callbacks, otherwise the callbacks are handed off to
+     * the callback executor, e.g. the activities are started on the main thread only.
+     *
+     * @return <code>true</code> if the callbacks can be called on the current thread, otherwise
+     * <code>false</code>.
+     */
+    protected boolean isDispatchThread() {
+        return true;
+    }
+
+    /**
+     * Test if the asynchronous or parked ringing is cancelled, the callbacks will not be called and
+     * the parked rings are dropped if cancelled.
+     *
+     * @return <code>true</code> if cancelled, otherwise <code>false</code>.
+     */
+    protected boolean isCancelled() {
+        return false;
+    }
+
+    /**
+     * Creates a new callback doorbell.
+     *
+     * @param condition The condition to test
+     * @return The builder of the callback doorbell
+     */
+    public static CallbackDoorbell.Builder create(boolean condition) {
+        return new CallbackDoorbell.Builder(condition);
+    }
+
+    /**
+     * Creates a new callback doorbell.
+     *
+     * @param condition The condition to test
+     * @return The builder of the callback doorbell
+     */
+    public static CallbackDoorbell.Builder create(Condition condition) {
+        return new CallbackDoorbell.Builder(condition);
+    }
+
+    /**
+     * Creates a new callback doorbell.
+     *
+     * @param door The door gets involved
+     * @return The builder of the callback doorbell
+     */
+    public static CallbackDoorbell.Builder create(Door door) {
+        return new CallbackDoorbell.Builder(door);
+    }
+
+    /**
+     * Ring the door.
+     *
+     * @param door The door to ring
+     * @return <code>true</code> if the condition of the given door is passed, otherwise <code>false</code>.
+     */
+    public static boolean ring(Door door) {
+        if (door == null) {
+            return false;
+        }
+        RingProbe probe = AbstractDoorbell.probe;
+        long start      = probe == null ? 0 : probe.begin(door, PHASE_TEST);
+        boolean passed  = false;
+        try {
+            passed = door.test();
+        } finally {
+            if (probe != null) {
+                probe.endTest(door, passed, start);
+            }
+        }
+        if (passed) {
+            door.onAllow();
+            door.onComplete();
+            return true;
+        }
+        door.onBlock();
+        return false;
+    }
+
+    /**
+     * Rings the doors in one pass. All of the doors are tested first, the identical doors, and the
+     * conditions shared by the {@link ConditionDoor}s including the ones combined by
+     * {@link com.wujilin.doorbell.condition.Conditions}, are tested only once. And then the
+     * callbacks of the doors are called in order.
+     *
+     * @param doors The doors to ring, the <code>null</code> doors are blocked without callbacks
+     * @return The bits of the results, the bit of the index of a door is set if the door passed
+     */
+    public static BitSet ringAll(Door... doors) {
+        BitSet results = new BitSet(doors == null ? 0 : doors.length);
+        if (doors == null) {
+            return results;
+        }
+        ConditionBatch batch = new ConditionBatch();
+        for (int i = 0; i < doors.length; i++) {
+            Door door = doors[i];
+            if (door == null) {
+                continue;
+            }
+            Condition condition = door instanceof ConditionDoor ? ((ConditionDoor) door).getCondition() : door;
+            if (batch.test(condition)) {
+                results.set(i);
+            }
+        }
+        for (int i = 0; i < doors.length; i++) {
+            Door door = doors[i];
+            if (door == null) {
+                continue;
+            }
+            if (results.get(i)) {
+                door.onAllow();
+                door.onComplete();
+            } else {
+                door.onBlock();
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Replays the parked rings of the given door as allowed without testing it again, called when
+     * the door passes now, e.g. after the user logs in. Only the rings blocked by the door itself
+     * are parked, the rings blocked by the interceptors are never replayed. The rings are replayed on the calling thread
+     * in the parking order, the activities are started on the main thread.
+     *
+     * @param door The involved door, or the condition if no door involved
+     * @return The number of the replayed rings
+     */
+    public static int resume(Condition door) {
+        if (door == null) {
+            return 0;
+        }
+        return ParkedRings.resume(door);
+    }
+
+    /**
+     * Drops all of the parked rings.
+     */
+    public static void clearParkedRings() {
+        ParkedRings.clear();
+    }
+
+    /**
+     * Returns the default executor to test the conditions asynchronously.
+     *
+     * @return The default executor
+     */
+    public static Executor getDefaultExecutor() {
+        Executor executor = defaultExecutor;
+        if (executor == null) {
+            synchronized (AbstractDoorbell.class) {
+                executor = defaultExecutor;
+                if (executor == null) {
+                    executor = defaultExecutor = AsyncRing.newDefaultExecutor();
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Setup the default executor to test the conditions asynchronously.
+     *
+     * @param executor The default executor
+     */
+    public static void setDefaultExecutor(Executor executor) {
+        defaultExecutor = requireNonNull(executor, "The default executor must not be null.");
+    }
+
+    /**
+     * Returns the executor to call the callbacks of the asynchronous ringing.
+     *
+     * @return The callback executor, or <code>null</code> if the callbacks are called on the
+     * thread testing the condition
+     */
+    public static Executor getCallbackExecutor() {
+        return callbackExecutor;
+    }
+
+    /**
+     * Setup the executor to call the callbacks of the asynchronous ringing. The Android library
+     * calls the callbacks on the main thread by default.
+     *
+     * @param executor The callback executor, or <code>null</code> to call the callbacks on the
+     *                 thread testing the condition
+     */
+    public static void setCallbackExecutor(Executor executor) {
+        callbackExecutor = executor;
+    }
+
+    /**
+     * Adds a global interceptor, which is called before the interceptors of the doorbell every time
+     * a doorbell rings.
+     *
+     * @param interceptor The interceptor to add
+     */
+    public static void addInterceptor(Interceptor interceptor) {
+        requireNonNull(interceptor, "The interceptor must not be null.");
+        synchronized (AbstractDoorbell.class) {
+            globalInterceptors = append(globalInterceptors, interceptor);
+        }
+    }
+
+    /**
+     * Removes a global interceptor.
+     *
+     * @param interceptor The interceptor to remove
+     * @return <code>true</code> if removed, otherwise <code>false</code>.
+     */
+    public static boolean removeInterceptor(Interceptor interceptor) {
+        synchronized (AbstractDoorbell.class) {
+            Interceptor[] interceptors = globalInterceptors;
+            for (int i = 0; i < interceptors.length; i++) {
+                if (interceptors[i] != interceptor) {
+                    continue;
+                }
+                Interceptor[] removed = new Interceptor[interceptors.length - 1];
+                System.arraycopy(interceptors, 0, removed, 0, i);
+                System.arraycopy(interceptors, i + 1, removed, i, removed.length - i);
+                globalInterceptors = removed;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Appends the interceptor to a copy of the interceptors.
+     *
+     * @param interceptors The interceptors
+     * @param interceptor  The interceptor to append
+     * @return The new interceptors
+     */
+    private static Interceptor[] append(Interceptor[] interceptors, Interceptor interceptor) {
+        Interceptor[] appended = Arrays.copyOf(interceptors, interceptors.length + 1);
+        appended[interceptors.length] = interceptor;
+        return appended;
+    }
+
+    /**
+     * Returns the metrics to record the ringing.
+     *
+     * @return The metrics, or <code>null</code> if disabled
+     */
+    public static RingMetrics getMetrics() {
+        RingProbe probe = AbstractDoorbell.probe;
+        return probe == null ? null : probe.getMetrics();
+    }
+
+    /**
+     * Setup the metrics to record the ringing.
+     *
+     * @param metrics The metrics, or <code>null</code> to disable
+     */
+    public static synchronized void setMetrics(RingMetrics metrics) {
+        probe = RingProbe.of(metrics, getTracer());
+    }
+
+    /**
+     * Returns the tracer to trace the phases of the ringing.
+     *
+     * @return The tracer, or <code>null</code> if disabled
+     */
+    public static RingTracer getTracer() {
+        RingProbe probe = AbstractDoorbell.probe;
+        return probe == null ? null : probe.getTracer();
+    }
+
+    /**
+     * Setup the tracer to trace the phases of the ringing.
+     *
+     * @param tracer The tracer, or <code>null</code> to disable
+     * @see com.wujilin.doorbell.trace.TraceBuffer
+     */
+    public static synchronized void setTracer(RingTracer tracer) {
+        probe = RingProbe.of(getMetrics(), tracer);
+    }
+
+    /**
+     * Returns the probe of the metrics and the tracer.
+     *
+     * @return The probe, or <code>null</code> if both disabled
+     */
+    static RingProbe getProbe() {
+        return probe;
+    }
+
+    /**
+     * The builder class to build the doorbell, which must be used by one thread.
+     */
+    public abstract static class Builder {
+
+        /**
+         * The condition of the ring
+         */
+        private Condition condition = CONDITION_TRUE;
+
+        /**
+         * The door get involved
+         */
+        private Door involvedDoor;
+
+        /**
+         * The executor to test the condition
+         */
+        private Executor executor;
+
+        /**
+         * The nanoseconds to park the blocked rings
+         */
+        private long parkNanos;
+
+        /**
+         * The interceptors of the doorbell
+         */
+        private Interceptor[] interceptors = NO_INTERCEPTORS;
+
+        /**
+         * Sets the condition of the ringing.
+         *
+         * @param condition The condition to test
+         * @return this
+         */
+        protected Builder condition(boolean condition) {
+            this.condition = valueOf(condition);
+            return this;
+        }
+
+        /**
+         * Sets the condition of the ringing, the condition will be tested every time the doorbell
+         * rings. If the condition is <code>null</code>, the condition will always be passed.
+         *
+         * @param condition The condition to test
+         * @return this
+         */
+        protected Builder condition(Condition condition) {
+            this.condition = condition == null ? CONDITION_TRUE : condition;
+            return this;
+        }
+
+        /**
+         * Sets the door to get involved.
+         *
+         * @param door The involved door
+         * @return this
+         */
+        protected Builder door(Door door) {
+            this.involvedDoor = door;
+            return this;
+        }
+
+        /**
+         * Rings the doorbell asynchronously with the default executor.
+         *
+         * @return this
+         * @see #async(Executor)
+         */
+        protected Builder async() {
+            return async(getDefaultExecutor());
+        }
+
+        /**
+         * Rings the doorbell asynchronously, the condition will be tested on the given executor
+         * and the callbacks will be called on the main thread.
+         *
+         * @param executor The executor to test the condition
+         * @return this
+         */
+        protected Builder async(Executor executor) {
+            this.executor = requireNonNull(executor, "The executor must not be null.");
+            return this;
+        }
+
+        /**
+         * Parks the ring if blocked, the parked ring will be replayed as allowed by
+         * {@link AbstractDoorbell#resume(Condition)} before it expires. At most 16 rings are
+         * parked, the oldest ring is dropped when full.
+         *
+         * @param expiry The time to keep the parked ring
+         * @param unit   The time unit of the expiry
+         * @return this
+         */
+        protected Builder park(long expiry, TimeUnit unit) {
+            requireNonNull(unit, "The time unit must not be null.");
+            this.parkNanos = unit.toNanos(expiry);
+            return this;
+        }
+
+        /**
+         * Adds an interceptor of the doorbell, which is called after the global interceptors.
+         *
+         * @param interceptor The interceptor to add
+         * @return this
+         * @see Interceptor
+         */
+        protected Builder intercept(Interceptor interceptor) {
+            requireNonNull(interceptor, "The interceptor must not be null.");
+            this.interceptors = append(interceptors, interceptor);
+            return this;
+        }
+
+        /**
+         * Replaces an interceptor of the doorbell in place, the interceptor is added if the
+         * interceptor to replace is not added, and the interceptor to replace is removed if no
+         * interceptor to replace with.
+         *
+         * @param replaced    The interceptor to replace, or <code>null</code> to add
+         * @param interceptor The interceptor to replace with, or <code>null</code> to remove
+         * @return this
+         */
+        Builder replaceInterceptor(Interceptor replaced, Interceptor interceptor) {
+            for (int i = 0; replaced != null && i < interceptors.length; i++) {
+                if (interceptors[i] != replaced) {
+                    continue;
+                }
+                if (interceptor == null) {
+                    Interceptor[] removed = new Interceptor[interceptors.length - 1];
+                    System.arraycopy(interceptors, 0, removed, 0, i);
+                    System.arraycopy(interceptors, i + 1, removed, i, removed.length - i);
+                    this.interceptors = removed;
+                } else {
+                    Interceptor[] replacing = interceptors.clone();
+                    replacing[i]            = interceptor;
+                    this.interceptors       = replacing;
+                }
+                return this;
+            }
+            return interceptor == null ? this : intercept(interceptor);
+        }
+
+        /**
+         * Ring the doorbell.
+         *
+         * @param listener The listener to be notified when blocked
+         */
+        public void ring(OnBlockListener listener) {
+            plan(listener).ring();
+        }
+
+        /**
+         * Ring the doorbell.
+         *
+         * @param listener The listener to be notified when allowed
+         */
+        public void ring(OnAllowListener listener) {
+            plan(listener).ring();
+        }
+
+        /**
+         * Ring the doorbell.
+         *
+         * @param listener The listener to be notified when ringing
+         */
+        public final void ring(RingListener listener) {
+            plan(listener).ring();
+        }
+
+        /**
+         * Compiles the doorbell into a reusable ring plan.
+         *
+         * @param listener The listener to be notified when blocked
+         * @return The ring plan
+         * @see RingPlan
+         */
+        public RingPlan plan(final OnBlockListener listener) {
+            requireNonNull(listener, "The on block listener must not be null.");
+            return plan(new SimpleRingListener() {
+                @Override
+                public void onBlock() {
+                    listener.onBlock();
+                }
+            });
+        }
+
+        /**
+         * Compiles the doorbell into a reusable ring plan.
+         *
+         * @param listener The listener to be notified when allowed
+         * @return The ring plan
+         * @see RingPlan
+         */
+        public RingPlan plan(final OnAllowListener listener) {
+            requireNonNull(listener, "The on allow listener must not be null.");
+            return plan(new SimpleRingListener() {
+                @Override
+                public void onAllow() {
+                    listener.onAllow();
+                }
+            });
+        }
+
+        /**
+         * Compiles the doorbell into a reusable ring plan.
+         *
+         * @param listener The listener to be notified when ringing
+         * @return The ring plan
+         * @see RingPlan
+         */
+        public final RingPlan plan(RingListener listener) {
+            requireNonNull(listener, "The ring listener must not be null.");
+            return new RingPlan(build(), listener);
+        }
+
+        /**
+         * Builds the doorbell.
+         *
+         * @return The doorbell
+         */
+        protected abstract AbstractDoorbell build();
+    }
+}
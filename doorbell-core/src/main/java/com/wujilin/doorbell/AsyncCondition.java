@@ -0,0 +1,46 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell;
+
+/**
+ * The interface represents the condition which may block when testing, such as the conditions
+ * reading disk or checking tokens. <br /><br />
+ *
+ * A doorbell with an async condition or an async door always rings asynchronously, the condition
+ * is tested on the executor of the doorbell and the callbacks are called on the callback executor,
+ * the main thread on Android.
+ *
+ * @see AbstractDoorbell#setDefaultExecutor(java.util.concurrent.Executor)
+ * @see AbstractDoorbell#setCallbackExecutor(java.util.concurrent.Executor)
+ */
+public interface AsyncCondition extends Condition {
+
+    /**
+     * Evaluates this condition on a worker thread.
+     *
+     * @return <code>true</code> if passed, otherwise <code>false</code>.
+     */
+    @Override
+    boolean test();
+}
@@ -0,0 +1,143 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The class represents a ringing which tests the condition on the executor of the doorbell and
+ * calls the callbacks on the callback executor.
+ */
+final class AsyncRing implements Runnable {
+
+    /**
+     * The number of the threads of the default executor
+     */
+    private static final int THREAD_COUNT = 2;
+
+    /**
+     * The seconds to keep the idle threads of the default executor alive
+     */
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    /**
+     * The doorbell to ring
+     */
+    private final AbstractDoorbell doorbell;
+
+    /**
+     * The listener to be notified when ringing
+     */
+    private final RingListener listener;
+
+    /**
+     * The chain of the interceptors, written by the executor and read by the callback executor
+     */
+    private volatile RingChain chain;
+
+    /**
+     * The result of the condition, written by the executor and read by the callback executor
+     */
+    private volatile boolean passed;
+
+    /**
+     * Whether the condition is tested
+     */
+    private volatile boolean tested;
+
+    /**
+     * Constructs a new async ringing.
+     *
+     * @param doorbell The doorbell to ring
+     * @param listener The listener to be notified when ringing
+     */
+    AsyncRing(AbstractDoorbell doorbell, RingListener listener) {
+        this.doorbell = doorbell;
+        this.listener = listener;
+    }
+
+    /**
+     * Constructs a new async ringing tested already, which only calls the callbacks.
+     *
+     * @param doorbell The doorbell to ring
+     * @param listener The listener to be notified when ringing
+     * @param passed   The result of the condition
+     * @param chain    The chain of the interceptors tested, or <code>null</code> if no interceptors
+     */
+    AsyncRing(AbstractDoorbell doorbell, RingListener listener, boolean passed, RingChain chain) {
+        this.doorbell = doorbell;
+        this.listener = listener;
+        this.chain    = chain;
+        this.passed   = passed;
+        this.tested   = true;
+    }
+
+    @Override
+    public void run() {
+        if (!tested) {
+            if (doorbell.isCancelled()) {
+                return;
+            }
+            RingChain chain = doorbell.newChain();
+            passed          = doorbell.test(chain);
+            this.chain      = chain;
+            tested          = true;
+            Executor callbackExecutor = AbstractDoorbell.getCallbackExecutor();
+            if (callbackExecutor != null) {
+                callbackExecutor.execute(this);
+                return;
+            }
+        }
+        if (!doorbell.isCancelled()) {
+            doorbell.deliver(passed, listener, chain);
+        }
+    }
+
+    /**
+     * Creates the default executor to test the async conditions.
+     *
+     * @return The default executor
+     */
+    static Executor newDefaultExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(THREAD_COUNT, THREAD_COUNT,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "Doorbell #" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
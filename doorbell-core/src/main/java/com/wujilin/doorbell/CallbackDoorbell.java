@@ -23,10 +23,12 @@ SOFTWARE.
 */
 package com.wujilin.doorbell;
 
+import java.util.concurrent.Executor;
+
 /**
  * The class represents a doorbell to ring to call the callback.
  */
-class CallbackDoorbell extends Doorbell {
+class CallbackDoorbell extends AbstractDoorbell {
 
     /**
      * Constructs a new callback doorbell.
@@ -40,7 +42,7 @@ class CallbackDoorbell extends Doorbell {
     /**
      * The callback doorbell builder.
      */
-    public static class Builder extends Doorbell.Builder {
+    public static class Builder extends AbstractDoorbell.Builder {
 
         /**
          * Construct a new builder.
@@ -52,13 +54,12 @@ class CallbackDoorbell extends Doorbell {
         }
 
         /**
-         * Constructs a new builder.
+         * Constructs a new builder, the condition will be tested every time the doorbell rings.
          *
          * @param condition The condition to test
          */
         public Builder(Condition condition) {
-            boolean test = condition == null || condition.test();
-            condition(test);
+            condition(condition);
         }
 
         /**
@@ -71,7 +72,25 @@ class CallbackDoorbell extends Doorbell {
         }
 
         @Override
-        protected Doorbell build() {
+        public Builder async() {
+            super.async();
+            return this;
+        }
+
+        @Override
+        public Builder async(Executor executor) {
+            super.async(executor);
+            return this;
+        }
+
+        @Override
+        public Builder intercept(Interceptor interceptor) {
+            super.intercept(interceptor);
+            return this;
+        }
+
+        @Override
+        protected AbstractDoorbell build() {
             return new CallbackDoorbell(this);
         }
     }
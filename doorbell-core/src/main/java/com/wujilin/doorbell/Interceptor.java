@@ -0,0 +1,87 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell;
+
+/**
+ * The interface definition for the interceptors to observe, short-circuit or rewrite the ringing,
+ * such as the cross-cutting checks of authentication, feature flags and analytics. <br /><br />
+ *
+ * The interceptors are called in order when a doorbell rings, the global interceptors first and
+ * then the interceptors of the doorbell. The condition or the involved door of the doorbell is
+ * tested after the last interceptor proceeds.
+ *
+ * <pre>
+ * Doorbell.addInterceptor(new Interceptor() {
+ *     public boolean intercept(Chain chain) {
+ *         if (!featureFlags.isEnabled(chain.getDoor())) {
+ *             return false; // blocked without testing the door
+ *         }
+ *         return chain.proceed();
+ *     }
+ * });
+ * </pre>
+ *
+ * @see AbstractDoorbell#addInterceptor(Interceptor)
+ */
+public interface Interceptor {
+
+    /**
+     * Intercepts the ringing. Returns <code>chain.proceed()</code> to continue, or returns the
+     * result directly to short-circuit the rest of the chain.
+     *
+     * @param chain The chain of the ringing
+     * @return <code>true</code> if the doorbell is allowed to ring, otherwise <code>false</code>.
+     */
+    boolean intercept(Chain chain);
+
+    /**
+     * The interface represents the chain of the interceptors of a ringing.
+     */
+    interface Chain {
+
+        /**
+         * Returns the door to test.
+         *
+         * @return The involved door, or the condition if no door involved
+         */
+        Condition getDoor();
+
+        /**
+         * Returns the target of the ringing, which can be modified in place by the interceptors,
+         * e.g. the intents of the activity doorbell. The target is created on the first call and
+         * belongs to this ringing only, modifications never carry over into other ringings.
+         *
+         * @return The target, or <code>null</code> if the doorbell has no target
+         */
+        Object getTarget();
+
+        /**
+         * Calls the next interceptor, or tests the door if no more interceptors. It must be called
+         * at most once by an interceptor.
+         *
+         * @return <code>true</code> if the doorbell is allowed to ring, otherwise <code>false</code>.
+         */
+        boolean proceed();
+    }
+}
@@ -0,0 +1,185 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell;
+
+import com.wujilin.doorbell.util.Clock;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * The bounded queue of the blocked rings parked to be replayed when their doors pass. <br /><br />
+ *
+ * Only the rings blocked by their doors are parked, the rings blocked by the interceptors are not,
+ * so a replayed ring never skips an interceptor. A doorbell blocked again with the same listener,
+ * e.g. a ring plan rung many times, replaces its parked ring, so it is replayed once. The oldest
+ * ring is dropped when the queue is full, and the expired or cancelled rings are dropped when the
+ * queue is accessed, or by {@link #releaseCancelled()} when the owners are destroyed, since the
+ * listeners usually reference their owners.
+ */
+final class ParkedRings {
+
+    /**
+     * The maximum number of the parked rings
+     */
+    static final int MAX_SIZE = 16;
+
+    /**
+     * The parked rings in the parking order
+     */
+    private static final LinkedList<ParkedRing> RINGS = new LinkedList<>();
+
+    /**
+     * Preventing from constructing.
+     */
+    private ParkedRings() {
+    }
+
+    /**
+     * Parks a blocked ring, replaces the parked ring of the same doorbell and listener if any.
+     *
+     * @param doorbell    The blocked doorbell
+     * @param listener    The listener to be notified when replaying
+     * @param expiryNanos The nanoseconds to keep the ring
+     */
+    static void park(AbstractDoorbell doorbell, RingListener listener, long expiryNanos) {
+        synchronized (RINGS) {
+            long now = Clock.SYSTEM.nanoTime();
+            expunge(now);
+            Iterator<ParkedRing> iterator = RINGS.iterator();
+            while (iterator.hasNext()) {
+                ParkedRing ring = iterator.next();
+                if (ring.doorbell == doorbell && ring.listener == listener) {
+                    iterator.remove();
+                    break;
+                }
+            }
+            if (RINGS.size() >= MAX_SIZE) {
+                RINGS.removeFirst();
+            }
+            RINGS.addLast(new ParkedRing(doorbell, listener, now + expiryNanos));
+        }
+    }
+
+    /**
+     * Replays the parked rings of the given door as allowed, in the parking order.
+     *
+     * @param door The door or the condition passed now
+     * @return The number of the replayed rings
+     */
+    static int resume(Condition door) {
+        List<ParkedRing> resumed = new ArrayList<>();
+        synchronized (RINGS) {
+            expunge(Clock.SYSTEM.nanoTime());
+            Iterator<ParkedRing> iterator = RINGS.iterator();
+            while (iterator.hasNext()) {
+                ParkedRing ring = iterator.next();
+                if (ring.doorbell.getDoor() == door) {
+                    iterator.remove();
+                    resumed.add(ring);
+                }
+            }
+        }
+
+        // replay outside the lock since the callbacks may ring again
+        int count = 0;
+        for (ParkedRing ring : resumed) {
+            if (ring.doorbell.isCancelled()) {
+                continue;
+            }
+            ring.doorbell.dispatch(true, ring.listener, null);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Drops the parked rings cancelled, e.g. the activities started from are destroyed.
+     */
+    static void releaseCancelled() {
+        synchronized (RINGS) {
+            expunge(Clock.SYSTEM.nanoTime());
+        }
+    }
+
+    /**
+     * Drops all of the parked rings.
+     */
+    static void clear() {
+        synchronized (RINGS) {
+            RINGS.clear();
+        }
+    }
+
+    /**
+     * Drops the expired or cancelled rings.
+     *
+     * @param now The current time in nanoseconds
+     */
+    private static void expunge(long now) {
+        Iterator<ParkedRing> iterator = RINGS.iterator();
+        while (iterator.hasNext()) {
+            ParkedRing ring = iterator.next();
+            if (now - ring.deadline >= 0 || ring.doorbell.isCancelled()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * The blocked ring parked.
+     */
+    private static final class ParkedRing {
+
+        /**
+         * The blocked doorbell
+         */
+        final AbstractDoorbell doorbell;
+
+        /**
+         * The listener to be notified when replaying
+         */
+        final RingListener listener;
+
+        /**
+         * The time to expire in nanoseconds
+         */
+        final long deadline;
+
+        /**
+         * Constructs a new parked ring.
+         *
+         * @param doorbell The blocked doorbell
+         * @param listener The listener to be notified when replaying
+         * @param deadline The time to expire in nanoseconds
+         */
+        ParkedRing(AbstractDoorbell doorbell, RingListener listener, long deadline) {
+            this.doorbell = doorbell;
+            this.listener = listener;
+            this.deadline = deadline;
+        }
+    }
+}
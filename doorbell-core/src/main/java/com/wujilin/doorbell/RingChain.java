@@ -0,0 +1,206 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell;
+
+import java.util.Arrays;
+
+/**
+ * The class represents the chain of the interceptors of a ringing, created for each ringing. <br /><br />
+ *
+ * The interceptors are walked by the index over the compiled arrays, no iterators or lists are
+ * created. The chain is not thread safe, it is used by the thread testing the condition, and then
+ * handed off with the result to the thread calling the callbacks. It also carries the target
+ * created for the interceptors, whether the door itself blocked the ringing, and the doors tested by
+ * the interceptors, whose callbacks are called when the result is delivered.
+ */
+final class RingChain implements Interceptor.Chain {
+
+    /**
+     * The empty doors
+     */
+    private static final Door[] NO_DOORS = new Door[0];
+
+    /**
+     * The doorbell rings
+     */
+    private final AbstractDoorbell doorbell;
+
+    /**
+     * The global interceptors
+     */
+    private final Interceptor[] globals;
+
+    /**
+     * The interceptors of the doorbell
+     */
+    private final Interceptor[] locals;
+
+    /**
+     * The index of the next interceptor
+     */
+    private int next;
+
+    /**
+     * The index of the interceptor being called, or <code>-1</code> if none
+     */
+    private int current = -1;
+
+    /**
+     * Whether the door is tested and blocked
+     */
+    private boolean doorBlocked;
+
+    /**
+     * The door of an interceptor blocked the ringing, or <code>null</code> if none
+     */
+    private Door blockedDoor;
+
+    /**
+     * The doors of the interceptors passed
+     */
+    private Door[] passedDoors = NO_DOORS;
+
+    /**
+     * Whether the target is created
+     */
+    private boolean targetCreated;
+
+    /**
+     * The target of the ringing created when asked for the first time
+     */
+    private Object target;
+
+    /**
+     * Constructs a new chain.
+     *
+     * @param doorbell The doorbell rings
+     * @param globals  The global interceptors
+     * @param locals   The interceptors of the doorbell
+     */
+    RingChain(AbstractDoorbell doorbell, Interceptor[] globals, Interceptor[] locals) {
+        this.doorbell = doorbell;
+        this.globals  = globals;
+        this.locals   = locals;
+    }
+
+    @Override
+    public Condition getDoor() {
+        return doorbell.getDoor();
+    }
+
+    @Override
+    public Object getTarget() {
+        if (!targetCreated) {
+            target        = doorbell.newTarget();
+            targetCreated = true;
+        }
+        return target;
+    }
+
+    /**
+     * Returns the target if created by an interceptor.
+     *
+     * @return The target, or <code>null</code> if never asked for
+     */
+    Object getCreatedTarget() {
+        return target;
+    }
+
+    /**
+     * Test if the ringing is blocked by the door itself, rather than by an interceptor.
+     *
+     * @return <code>true</code> if the door is tested and blocked, otherwise <code>false</code>.
+     */
+    boolean isDoorBlocked() {
+        return doorBlocked;
+    }
+
+    /**
+     * Records the door of an interceptor blocked the ringing, its onBlock callback is called when
+     * the result is delivered.
+     *
+     * @param door The blocked door
+     */
+    void block(Door door) {
+        blockedDoor = door;
+    }
+
+    /**
+     * Records the doors of an interceptor passed, their onAllow and onComplete callbacks are called
+     * when the result is delivered if the ringing is allowed.
+     *
+     * @param doors The passed doors
+     */
+    void pass(Door[] doors) {
+        if (doors.length == 0) {
+            return;
+        }
+        int length  = passedDoors.length;
+        passedDoors = Arrays.copyOf(passedDoors, length + doors.length);
+        System.arraycopy(doors, 0, passedDoors, length, doors.length);
+    }
+
+    /**
+     * Returns the door of an interceptor blocked the ringing.
+     *
+     * @return The blocked door, or <code>null</code> if none
+     */
+    Door getBlockedDoor() {
+        return blockedDoor;
+    }
+
+    /**
+     * Returns the doors of the interceptors passed.
+     *
+     * @return The passed doors
+     */
+    Door[] getPassedDoors() {
+        return passedDoors;
+    }
+
+    @Override
+    public boolean proceed() {
+        int index = next;
+        if (index != current + 1) {
+            throw new IllegalStateException("The chain must be proceeded at most once by an interceptor.");
+        }
+        next = index + 1;
+        int previous = current;
+        current      = index;
+        try {
+            if (index < globals.length) {
+                return globals[index].intercept(this);
+            }
+            index -= globals.length;
+            if (index < locals.length) {
+                return locals[index].intercept(this);
+            }
+            boolean passed = doorbell.getDoor().test();
+            doorBlocked    = !passed;
+            return passed;
+        } finally {
+            current = previous;
+        }
+    }
+}
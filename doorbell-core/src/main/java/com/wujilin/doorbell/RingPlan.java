@@ -0,0 +1,76 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell;
+
+/**
+ * The class represents a compiled doorbell which can be rung many times. <br /><br />
+ *
+ * A ring plan is built once by the <code>plan(...)</code> methods of the doorbell builders, and then
+ * rung without creating any objects but the chain of the interceptors if any. The condition or the
+ * involved door is tested on every ring.
+ * The plan is immutable and can be shared between threads, but the configuration captured by the
+ * plan, such as the intents of an activity doorbell, must not be modified after planning.
+ *
+ * <pre>
+ * RingPlan plan = Doorbell.with(activity)
+ *     .start(AnotherActivity.class)
+ *     .door(loginDoor)
+ *     .plan();
+ *
+ * plan.ring();
+ * </pre>
+ */
+public final class RingPlan {
+
+    /**
+     * The doorbell to ring
+     */
+    private final AbstractDoorbell doorbell;
+
+    /**
+     * The listener to be notified when ringing
+     */
+    private final RingListener listener;
+
+    /**
+     * Constructs a new ring plan.
+     *
+     * @param doorbell The doorbell to ring
+     * @param listener The listener to be notified when ringing
+     */
+    RingPlan(AbstractDoorbell doorbell, RingListener listener) {
+        this.doorbell = doorbell;
+        this.listener = listener;
+    }
+
+    /**
+     * Ring the doorbell.
+     *
+     * @return <code>true</code> if the doorbell is allowed to ring, otherwise <code>false</code>.
+     * Always <code>false</code> when ringing asynchronously.
+     */
+    public boolean ring() {
+        return doorbell.ring(listener);
+    }
+}
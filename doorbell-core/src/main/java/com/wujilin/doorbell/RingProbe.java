@@ -0,0 +1,130 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell;
+
+import com.wujilin.doorbell.metrics.RingMetrics;
+import com.wujilin.doorbell.trace.RingTracer;
+
+/**
+ * The class combines the metrics and the tracer installed, so the ringing checks a single field
+ * and nothing is measured if neither is installed.
+ */
+final class RingProbe {
+
+    /**
+     * The metrics, or <code>null</code> if not installed
+     */
+    private final RingMetrics metrics;
+
+    /**
+     * The tracer, or <code>null</code> if not installed
+     */
+    private final RingTracer tracer;
+
+    /**
+     * Constructs a new probe.
+     *
+     * @param metrics The metrics, or <code>null</code> if not installed
+     * @param tracer  The tracer, or <code>null</code> if not installed
+     */
+    private RingProbe(RingMetrics metrics, RingTracer tracer) {
+        this.metrics = metrics;
+        this.tracer  = tracer;
+    }
+
+    /**
+     * Creates a probe of the metrics and the tracer.
+     *
+     * @param metrics The metrics, or <code>null</code> if not installed
+     * @param tracer  The tracer, or <code>null</code> if not installed
+     * @return The probe, or <code>null</code> if neither is installed
+     */
+    static RingProbe of(RingMetrics metrics, RingTracer tracer) {
+        return metrics == null && tracer == null ? null : new RingProbe(metrics, tracer);
+    }
+
+    /**
+     * Returns the metrics.
+     *
+     * @return The metrics, or <code>null</code> if not installed
+     */
+    RingMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the tracer.
+     *
+     * @return The tracer, or <code>null</code> if not installed
+     */
+    RingTracer getTracer() {
+        return tracer;
+    }
+
+    /**
+     * Called when a phase begins.
+     *
+     * @param door  The involved door, or the condition if no door involved
+     * @param phase The phase
+     * @return The start time of the phase
+     */
+    long begin(Object door, int phase) {
+        if (tracer != null) {
+            tracer.begin(door, phase);
+        }
+        return metrics == null ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Called when a phase ends.
+     *
+     * @param door  The involved door, or the condition if no door involved
+     * @param phase The phase
+     * @param start The start time returned by {@link #begin(Object, int)}
+     */
+    void end(Object door, int phase, long start) {
+        if (metrics != null) {
+            metrics.onPhase(door, phase, System.nanoTime() - start);
+        }
+        if (tracer != null) {
+            tracer.end(door, phase);
+        }
+    }
+
+    /**
+     * Called when the door is tested.
+     *
+     * @param door   The involved door, or the condition if no door involved
+     * @param passed The result of the test
+     * @param start  The start time returned by {@link #begin(Object, int)}
+     */
+    void endTest(Object door, boolean passed, long start) {
+        if (metrics != null) {
+            metrics.onTest(door, passed, System.nanoTime() - start);
+        }
+        if (tracer != null) {
+            tracer.end(door, RingMetrics.PHASE_TEST);
+        }
+    }
+}
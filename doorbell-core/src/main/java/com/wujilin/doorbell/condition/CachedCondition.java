@@ -0,0 +1,217 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.condition;
+
+import com.wujilin.doorbell.Condition;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.wujilin.doorbell.util.Objects.requireNonNull;
+
+/**
+ * The condition caches the result of another condition for a time to live. <br /><br />
+ *
+ * The cached result is dropped when it expires, when {@link #invalidate()} is called, or when the
+ * global epoch is bumped by {@link #invalidateAll()}, e.g. after the user logs in or out. Reading
+ * the cached result takes no locks. <br /><br />
+ *
+ * The condition is tested again by a single thread, the first one finding the result stale marks
+ * the result pending by compare-and-set. The other threads read the expired result meanwhile, or
+ * test the condition themselves without caching if the result was invalidated or never tested,
+ * since the old result must not be used then.
+ */
+public class CachedCondition implements Condition {
+
+    /**
+     * The value represents the result never expires
+     */
+    public static final long TTL_INFINITE = Long.MAX_VALUE;
+
+    /**
+     * The global epoch, bumped to invalidate all of the cached results
+     */
+    private static final AtomicInteger EPOCH = new AtomicInteger();
+
+    /**
+     * The condition to cache
+     */
+    private final Condition condition;
+
+    /**
+     * The time to live of the result in nanoseconds
+     */
+    private final long ttlNanos;
+
+    /**
+     * The current cached result, or <code>null</code> if never tested
+     */
+    private final AtomicReference<Entry> entry = new AtomicReference<>();
+
+    /**
+     * The number of the rings reading the cached result
+     */
+    private final AtomicLong hitCount = new AtomicLong();
+
+    /**
+     * The number of the rings testing the condition
+     */
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * Constructs a new cached condition whose result never expires until invalidated.
+     *
+     * @param condition The condition to cache
+     */
+    public CachedCondition(Condition condition) {
+        this(condition, TTL_INFINITE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Constructs a new cached condition.
+     *
+     * @param condition The condition to cache
+     * @param ttl       The time to live of the result
+     * @param unit      The time unit of the time to live
+     */
+    public CachedCondition(Condition condition, long ttl, TimeUnit unit) {
+        this.condition = requireNonNull(condition, "The condition must not be null.");
+        this.ttlNanos  = requireNonNull(unit, "The time unit must not be null.").toNanos(ttl);
+    }
+
+    @Override
+    public boolean test() {
+        int epoch = EPOCH.get();
+        long now  = System.nanoTime();
+        while (true) {
+            Entry entry = this.entry.get();
+            if (entry != null && entry.epoch == epoch && (entry.pending || now - entry.time < ttlNanos)) {
+                // fresh, or expired only and being tested again by another thread
+                hitCount.incrementAndGet();
+                return entry.value;
+            }
+            if (entry != null && entry.pending) {
+                missCount.incrementAndGet();
+                return condition.test();
+            }
+            Entry pending = entry == null
+                    ? new Entry(false, epoch - 1, 0, true)
+                    : new Entry(entry.value, entry.epoch, entry.time, true);
+            if (!this.entry.compareAndSet(entry, pending)) {
+                continue;
+            }
+            missCount.incrementAndGet();
+            boolean tested = false;
+            try {
+                boolean value = condition.test();
+                tested        = true;
+
+                // the result is dropped if invalidated while testing
+                this.entry.compareAndSet(pending, new Entry(value, epoch, now, false));
+                return value;
+            } finally {
+                if (!tested) {
+                    // let the next thread test again if thrown
+                    this.entry.compareAndSet(pending, entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the cached result of this condition.
+     */
+    public void invalidate() {
+        // a new stale entry to fail the pending caching
+        entry.set(new Entry(false, EPOCH.get() - 1, 0, false));
+    }
+
+    /**
+     * Returns the number of the tests reading the cached result.
+     *
+     * @return The number of hits
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Returns the number of the tests testing the condition.
+     *
+     * @return The number of misses
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Bumps the global epoch to drop the cached results of all of the cached conditions.
+     */
+    public static void invalidateAll() {
+        EPOCH.incrementAndGet();
+    }
+
+    /**
+     * The immutable cached result.
+     */
+    private static final class Entry {
+
+        /**
+         * The result of the condition
+         */
+        final boolean value;
+
+        /**
+         * The global epoch when testing
+         */
+        final int epoch;
+
+        /**
+         * The time when testing in nanoseconds
+         */
+        final long time;
+
+        /**
+         * Whether the condition is being tested again by a thread
+         */
+        final boolean pending;
+
+        /**
+         * Constructs a new cached result.
+         *
+         * @param value   The result of the condition
+         * @param epoch   The global epoch when testing
+         * @param time    The time when testing in nanoseconds
+         * @param pending Whether the condition is being tested again by a thread
+         */
+        Entry(boolean value, int epoch, long time, boolean pending) {
+            this.value   = value;
+            this.epoch   = epoch;
+            this.time    = time;
+            this.pending = pending;
+        }
+    }
+}
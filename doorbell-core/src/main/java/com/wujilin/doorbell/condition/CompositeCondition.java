@@ -0,0 +1,310 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.condition;
+
+import com.wujilin.doorbell.Condition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static com.wujilin.doorbell.util.Objects.requireNonNull;
+
+/**
+ * The condition combines other conditions with the logical AND or OR, created by
+ * {@link Conditions#allOf(Condition...)} or {@link Conditions#anyOf(Condition...)}. <br /><br />
+ *
+ * The nested composites of the same kind are flattened into a single array, the constant conditions
+ * are folded, and the conditions are tested in order until the result is decided. An adaptive composite created by
+ * {@link #adaptive()} measures the cost and the decisive rate of its conditions and reorders them
+ * periodically, so the cheapest and most decisive conditions are tested first. The measurement is
+ * approximate when tested from multiple threads, which only affects the order, never the result.
+ * The independent and slow conditions can be tested concurrently by {@link #parallel()}.
+ */
+public final class CompositeCondition implements Condition {
+
+    /**
+     * The number of the tests between two measurements, must be a power of two
+     */
+    private static final int SAMPLE_INTERVAL = 8;
+
+    /**
+     * The number of the tests between two reorderings, must be a power of two
+     */
+    private static final int REORDER_INTERVAL = 256;
+
+    /**
+     * Whether all of the conditions must be passed, otherwise any of them
+     */
+    private final boolean all;
+
+    /**
+     * The conditions to test
+     */
+    private final Condition[] conditions;
+
+    /**
+     * Whether the conditions are reordered by the measurement
+     */
+    private final boolean adaptive;
+
+    /**
+     * The indexes of the conditions in the order to test
+     */
+    private volatile int[] order;
+
+    /**
+     * The number of the tests
+     */
+    private int testCount;
+
+    /**
+     * The number of the measured tests of each condition
+     */
+    private final long[] sampleCounts;
+
+    /**
+     * The measured nanoseconds of each condition
+     */
+    private final long[] sampleNanos;
+
+    /**
+     * The number of the measured tests decided by each condition
+     */
+    private final long[] decisiveCounts;
+
+    /**
+     * Constructs a new composite condition.
+     *
+     * @param all        Whether all of the conditions must be passed, otherwise any of them
+     * @param conditions The flattened conditions to test
+     * @param adaptive   Whether the conditions are reordered by the measurement
+     */
+    private CompositeCondition(boolean all, Condition[] conditions, boolean adaptive) {
+        this.all        = all;
+        this.conditions = conditions;
+        this.adaptive   = adaptive;
+        this.order      = new int[conditions.length];
+        for (int i = 0; i < conditions.length; i++) {
+            order[i] = i;
+        }
+        int samples         = adaptive ? conditions.length : 0;
+        this.sampleCounts   = new long[samples];
+        this.sampleNanos    = new long[samples];
+        this.decisiveCounts = new long[samples];
+    }
+
+    /**
+     * Creates a new composite condition. The constant conditions are folded, the neutral ones, true
+     * for AND and false for OR, are dropped, and an absorbing one, false for AND and true for OR,
+     * decides the result alone without testing the other conditions.
+     *
+     * @param all        Whether all of the conditions must be passed, otherwise any of them
+     * @param conditions The conditions to combine
+     * @return The composite condition
+     */
+    static CompositeCondition of(boolean all, Condition... conditions) {
+        requireNonNull(conditions, "The conditions must not be null.");
+        Condition absorbing       = Conditions.valueOf(!all);
+        List<Condition> flattened = new ArrayList<>(conditions.length);
+        for (Condition condition : conditions) {
+            requireNonNull(condition, "The condition must not be null.");
+            Condition folded = fold(condition);
+            if (folded == absorbing) {
+                return new CompositeCondition(all, new Condition[]{absorbing}, false);
+            }
+            if (folded == Conditions.valueOf(all)) {
+                continue;
+            }
+            if (condition instanceof CompositeCondition && ((CompositeCondition) condition).all == all) {
+                CompositeCondition composite = (CompositeCondition) condition;
+                for (Condition nested : composite.conditions) {
+                    flattened.add(nested);
+                }
+                continue;
+            }
+            flattened.add(condition);
+        }
+        return new CompositeCondition(all, flattened.toArray(new Condition[flattened.size()]), false);
+    }
+
+    /**
+     * Returns the constant condition equivalent to the given condition if any, that is the constant
+     * condition itself or a composite of no conditions or of a single constant condition.
+     *
+     * @param condition The condition to fold
+     * @return The constant condition, or the given condition if not constant
+     */
+    static Condition fold(Condition condition) {
+        if (!(condition instanceof CompositeCondition)) {
+            return condition;
+        }
+        Condition[] conditions = ((CompositeCondition) condition).conditions;
+        if (conditions.length == 0) {
+            return Conditions.valueOf(((CompositeCondition) condition).all);
+        }
+        if (conditions.length == 1 && (conditions[0] == Conditions.CONDITION_TRUE
+                || conditions[0] == Conditions.CONDITION_FALSE)) {
+            return conditions[0];
+        }
+        return condition;
+    }
+
+    /**
+     * Returns a new composite condition of the same conditions which are reordered by the
+     * measured cost and decisive rate.
+     *
+     * @return The adaptive composite condition
+     */
+    public CompositeCondition adaptive() {
+        if (adaptive) {
+            return this;
+        }
+        return new CompositeCondition(all, conditions, true);
+    }
+
+    /**
+     * Returns a new condition testing the same conditions concurrently on the default bounded
+     * pool, for the independent and slow conditions.
+     *
+     * @return The parallel condition
+     * @see ParallelCondition
+     */
+    public ParallelCondition parallel() {
+        return parallel(ParallelCondition.getDefaultExecutor());
+    }
+
+    /**
+     * Returns a new condition testing the same conditions concurrently on the given executor.
+     *
+     * @param executor The executor to test the conditions
+     * @return The parallel condition
+     * @see ParallelCondition
+     */
+    public ParallelCondition parallel(Executor executor) {
+        return new ParallelCondition(all, conditions, executor);
+    }
+
+    /**
+     * Test if all of the conditions must be passed.
+     *
+     * @return <code>true</code> for AND, otherwise <code>false</code> for OR.
+     */
+    boolean isAll() {
+        return all;
+    }
+
+    /**
+     * Returns the flattened conditions.
+     *
+     * @return The conditions
+     */
+    Condition[] getConditions() {
+        return conditions;
+    }
+
+    /**
+     * Returns the indexes of the conditions in the order to test.
+     *
+     * @return The order of the conditions
+     */
+    int[] getOrder() {
+        return order;
+    }
+
+    @Override
+    public boolean test() {
+        if (adaptive) {
+            return testAdaptively();
+        }
+        // the decisive result of each condition, false for AND and true for OR
+        boolean decisive = !all;
+        for (Condition condition : conditions) {
+            if (condition.test() == decisive) {
+                return decisive;
+            }
+        }
+        return all;
+    }
+
+    /**
+     * Tests the conditions in the adaptive order, and measures them if sampled.
+     *
+     * @return <code>true</code> if passed, otherwise <code>false</code>.
+     */
+    private boolean testAdaptively() {
+        int count         = ++testCount;
+        boolean isSampled = (count & (SAMPLE_INTERVAL - 1)) == 0;
+        if ((count & (REORDER_INTERVAL - 1)) == 0) {
+            reorder();
+        }
+        boolean decisive = !all;
+        int[] order      = this.order;
+        for (int index : order) {
+            if (!isSampled) {
+                if (conditions[index].test() == decisive) {
+                    return decisive;
+                }
+                continue;
+            }
+            long start     = System.nanoTime();
+            boolean result = conditions[index].test();
+            sampleNanos[index] += System.nanoTime() - start;
+            sampleCounts[index]++;
+            if (result == decisive) {
+                decisiveCounts[index]++;
+                return decisive;
+            }
+        }
+        return all;
+    }
+
+    /**
+     * Reorders the conditions by the expected cost to decide the result, that is the measured cost
+     * divided by the decisive rate, in ascending order.
+     */
+    private void reorder() {
+        int length     = conditions.length;
+        double[] costs = new double[length];
+        int[] order    = this.order.clone();
+        for (int i = 0; i < length; i++) {
+            long samples = sampleCounts[i];
+            double cost  = samples == 0 ? 0 : (double) sampleNanos[i] / samples;
+            double rate  = (decisiveCounts[i] + 1.0) / (samples + 2.0);
+            costs[i]     = cost / rate;
+        }
+
+        // insertion sort, the order is almost sorted since last time
+        for (int i = 1; i < length; i++) {
+            int index = order[i];
+            int j     = i - 1;
+            while (j >= 0 && costs[order[j]] > costs[index]) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = index;
+        }
+        this.order = order;
+    }
+}
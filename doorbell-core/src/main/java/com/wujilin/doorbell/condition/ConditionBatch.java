@@ -0,0 +1,95 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.condition;
+
+import com.wujilin.doorbell.Condition;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The class tests many conditions in one pass and tests each condition at most once. <br /><br />
+ *
+ * The results are remembered by the identities of the conditions. The conditions combined by
+ * {@link Conditions} are expanded, so their shared sub-conditions are also tested only once. The
+ * batch is not thread-safe and should be discarded after the pass, since the remembered results
+ * never change.
+ */
+public final class ConditionBatch {
+
+    /**
+     * The results of the tested conditions
+     */
+    private final Map<Condition, Boolean> results = new IdentityHashMap<>();
+
+    /**
+     * Tests the given condition, returns the remembered result if tested in this batch.
+     *
+     * @param condition The condition to test
+     * @return <code>true</code> if passed, otherwise <code>false</code>.
+     */
+    public boolean test(Condition condition) {
+        Boolean result = results.get(condition);
+        if (result != null) {
+            return result;
+        }
+        boolean passed;
+        if (condition instanceof CompositeCondition) {
+            passed = test((CompositeCondition) condition);
+        } else if (condition instanceof NotCondition) {
+            passed = !test(((NotCondition) condition).condition);
+        } else {
+            passed = condition.test();
+        }
+        results.put(condition, passed);
+        return passed;
+    }
+
+    /**
+     * Tests the given composite condition by testing its conditions in this batch.
+     *
+     * @param composite The composite condition to test
+     * @return <code>true</code> if passed, otherwise <code>false</code>.
+     */
+    private boolean test(CompositeCondition composite) {
+        boolean all            = composite.isAll();
+        boolean decisive       = !all;
+        Condition[] conditions = composite.getConditions();
+        for (int index : composite.getOrder()) {
+            if (test(conditions[index]) == decisive) {
+                return decisive;
+            }
+        }
+        return all;
+    }
+
+    /**
+     * Returns the number of the conditions tested in this batch, including the sub-conditions.
+     *
+     * @return The number of the tested conditions
+     */
+    public int size() {
+        return results.size();
+    }
+}
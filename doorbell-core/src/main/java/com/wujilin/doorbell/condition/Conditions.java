@@ -0,0 +1,163 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.condition;
+
+import com.wujilin.doorbell.Condition;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.wujilin.doorbell.util.Objects.requireNonNull;
+
+/**
+ * Helper class for creating the conditions.
+ */
+public final class Conditions {
+
+    /**
+     * The condition always passed
+     */
+    public static final Condition CONDITION_TRUE = new Condition() {
+        @Override
+        public boolean test() {
+            return true;
+        }
+    };
+
+    /**
+     * The condition never passed
+     */
+    public static final Condition CONDITION_FALSE = new Condition() {
+        @Override
+        public boolean test() {
+            return false;
+        }
+    };
+
+    /**
+     * Preventing from constructing.
+     */
+    private Conditions() {
+    }
+
+    /**
+     * Returns the constant condition of the given value.
+     *
+     * @param value The value of the condition
+     * @return {@link #CONDITION_TRUE} if the value is <code>true</code>, otherwise {@link #CONDITION_FALSE}
+     */
+    public static Condition valueOf(boolean value) {
+        return value ? CONDITION_TRUE : CONDITION_FALSE;
+    }
+
+    /**
+     * Creates a new condition passed if both of the given conditions are passed.
+     *
+     * @param first  The condition to test first
+     * @param second The condition to test if the first passed
+     * @return The composite condition
+     */
+    public static CompositeCondition and(Condition first, Condition second) {
+        return CompositeCondition.of(true, first, second);
+    }
+
+    /**
+     * Creates a new condition passed if either of the given conditions is passed.
+     *
+     * @param first  The condition to test first
+     * @param second The condition to test if the first blocked
+     * @return The composite condition
+     */
+    public static CompositeCondition or(Condition first, Condition second) {
+        return CompositeCondition.of(false, first, second);
+    }
+
+    /**
+     * Creates a new condition passed if all of the given conditions are passed. The conditions are
+     * tested in order until one of them is blocked.
+     *
+     * @param conditions The conditions to test
+     * @return The composite condition
+     */
+    public static CompositeCondition allOf(Condition... conditions) {
+        return CompositeCondition.of(true, conditions);
+    }
+
+    /**
+     * Creates a new condition passed if any of the given conditions is passed. The conditions are
+     * tested in order until one of them is passed.
+     *
+     * @param conditions The conditions to test
+     * @return The composite condition
+     */
+    public static CompositeCondition anyOf(Condition... conditions) {
+        return CompositeCondition.of(false, conditions);
+    }
+
+    /**
+     * Creates a new condition passed if the given condition is blocked.
+     *
+     * @param condition The condition to negate
+     * @return The negated condition
+     */
+    public static Condition not(Condition condition) {
+        requireNonNull(condition, "The condition must not be null.");
+        condition = CompositeCondition.fold(condition);
+        if (condition == CONDITION_TRUE) {
+            return CONDITION_FALSE;
+        }
+        if (condition == CONDITION_FALSE) {
+            return CONDITION_TRUE;
+        }
+        if (condition instanceof NotCondition) {
+            return ((NotCondition) condition).condition;
+        }
+        return new NotCondition(condition);
+    }
+
+    /**
+     * Creates a new condition caching the result of the given condition for a time to live.
+     *
+     * @param condition The condition to cache
+     * @param ttl       The time to live of the result
+     * @param unit      The time unit of the time to live
+     * @return The cached condition
+     */
+    public static CachedCondition cache(Condition condition, long ttl, TimeUnit unit) {
+        return new CachedCondition(condition, ttl, unit);
+    }
+
+    /**
+     * Creates a new condition testing the given condition within a time budget.
+     *
+     * @param condition The condition to test
+     * @param budget    The time budget
+     * @param unit      The time unit of the budget
+     * @param fallback  The fallback decision when missing the deadline
+     * @return The deadline condition
+     */
+    public static DeadlineCondition deadline(Condition condition, long budget, TimeUnit unit,
+                                             DeadlineCondition.Fallback fallback) {
+        return new DeadlineCondition(condition, budget, unit, fallback);
+    }
+}
@@ -0,0 +1,296 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.condition;
+
+import com.wujilin.doorbell.Condition;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.wujilin.doorbell.util.Objects.requireNonNull;
+
+/**
+ * The condition tests another condition within a time budget, the fallback decision is returned
+ * if the condition misses the deadline. <br /><br />
+ *
+ * The condition is tested on the executor and the ringing thread waits for it at most the budget.
+ * A condition missing the deadline keeps running, its result is kept as the last known value and
+ * is waited by the next rings instead of testing again, so at most one test of a condition is in
+ * flight. The misses are counted by each condition and by {@link #getTotalMissCount()}. A test
+ * rejected by the executor is counted as a miss, the fallback decision is returned at once and the
+ * next ring tries again.
+ */
+public class DeadlineCondition implements Condition {
+
+    /**
+     * The fallback decisions when the condition misses the deadline.
+     */
+    public enum Fallback {
+
+        /**
+         * Allows the ringing
+         */
+        ALLOW,
+
+        /**
+         * Blocks the ringing
+         */
+        BLOCK,
+
+        /**
+         * Returns the last known result of the condition, or blocks if never known
+         */
+        LAST_KNOWN
+    }
+
+    /**
+     * The values of the last known result
+     */
+    private static final int UNKNOWN = 0;
+    private static final int PASSED  = 1;
+    private static final int BLOCKED = 2;
+
+    /**
+     * The number of the deadline misses of all of the deadline conditions
+     */
+    private static final AtomicLong TOTAL_MISS_COUNT = new AtomicLong();
+
+    /**
+     * The default executor to test the conditions, created when needed
+     */
+    private static volatile Executor defaultExecutor;
+
+    /**
+     * The condition to test
+     */
+    private final Condition condition;
+
+    /**
+     * The time budget in nanoseconds
+     */
+    private final long budgetNanos;
+
+    /**
+     * The fallback decision
+     */
+    private final Fallback fallback;
+
+    /**
+     * The executor to test the condition
+     */
+    private final Executor executor;
+
+    /**
+     * The test in flight, or <code>null</code> if none
+     */
+    private final AtomicReference<Evaluation> pending = new AtomicReference<>();
+
+    /**
+     * The last known result
+     */
+    private volatile int lastKnown = UNKNOWN;
+
+    /**
+     * The number of the deadline misses
+     */
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * Constructs a new deadline condition testing on the default executor.
+     *
+     * @param condition The condition to test
+     * @param budget    The time budget
+     * @param unit      The time unit of the budget
+     * @param fallback  The fallback decision when missing the deadline
+     */
+    public DeadlineCondition(Condition condition, long budget, TimeUnit unit, Fallback fallback) {
+        this(condition, budget, unit, fallback, getDefaultExecutor());
+    }
+
+    /**
+     * Constructs a new deadline condition. The executor must not run the tests on the ringing
+     * thread, and should not be shared with the asynchronous ringing to keep the budget.
+     *
+     * @param condition The condition to test
+     * @param budget    The time budget
+     * @param unit      The time unit of the budget
+     * @param fallback  The fallback decision when missing the deadline
+     * @param executor  The executor to test the condition
+     */
+    public DeadlineCondition(Condition condition, long budget, TimeUnit unit, Fallback fallback, Executor executor) {
+        this.condition   = requireNonNull(condition, "The condition must not be null.");
+        this.budgetNanos = requireNonNull(unit, "The time unit must not be null.").toNanos(budget);
+        this.fallback    = requireNonNull(fallback, "The fallback must not be null.");
+        this.executor    = requireNonNull(executor, "The executor must not be null.");
+        if (budgetNanos <= 0) {
+            throw new IllegalArgumentException("The budget must be positive.");
+        }
+    }
+
+    @Override
+    public boolean test() {
+        Evaluation evaluation = pending.get();
+        while (evaluation == null) {
+            Evaluation created = new Evaluation();
+            if (pending.compareAndSet(null, created)) {
+                evaluation = created;
+                try {
+                    executor.execute(created);
+                } catch (RejectedExecutionException e) {
+                    // clears the pending test and releases the rings waiting for it
+                    created.cancel(false);
+                    return miss();
+                }
+            } else {
+                evaluation = pending.get();
+            }
+        }
+        try {
+            return evaluation.get(budgetNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | CancellationException e) {
+            return miss();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return getFallback();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Counts a deadline miss and returns the fallback result.
+     *
+     * @return The fallback result
+     */
+    private boolean miss() {
+        missCount.incrementAndGet();
+        TOTAL_MISS_COUNT.incrementAndGet();
+        return getFallback();
+    }
+
+    /**
+     * Returns the fallback result.
+     *
+     * @return The fallback result
+     */
+    private boolean getFallback() {
+        switch (fallback) {
+            case ALLOW:
+                return true;
+            case LAST_KNOWN:
+                return lastKnown == PASSED;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Returns the number of the deadline misses of this condition.
+     *
+     * @return The number of the misses
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Returns the number of the deadline misses of all of the deadline conditions.
+     *
+     * @return The number of the misses
+     */
+    public static long getTotalMissCount() {
+        return TOTAL_MISS_COUNT.get();
+    }
+
+    /**
+     * Returns the default executor to test the deadline conditions, whose threads are created when
+     * needed and never shared with the asynchronous ringing.
+     *
+     * @return The default executor
+     */
+    private static Executor getDefaultExecutor() {
+        Executor executor = defaultExecutor;
+        if (executor == null) {
+            synchronized (DeadlineCondition.class) {
+                executor = defaultExecutor;
+                if (executor == null) {
+                    executor = defaultExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+                        private final AtomicInteger count = new AtomicInteger();
+
+                        @Override
+                        public Thread newThread(Runnable runnable) {
+                            Thread thread = new Thread(runnable, "Doorbell deadline #" + count.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * The class represents a test of the condition in flight.
+     */
+    private final class Evaluation extends FutureTask<Boolean> {
+
+        /**
+         * Constructs a new evaluation.
+         */
+        Evaluation() {
+            super(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    boolean passed = condition.test();
+                    lastKnown      = passed ? PASSED : BLOCKED;
+                    return passed;
+                }
+            });
+        }
+
+        @Override
+        protected void done() {
+            pending.compareAndSet(this, null);
+        }
+    }
+}
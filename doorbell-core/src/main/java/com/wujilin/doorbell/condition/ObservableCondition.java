@@ -0,0 +1,187 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.condition;
+
+import com.wujilin.doorbell.AbstractDoorbell;
+import com.wujilin.doorbell.Condition;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.wujilin.doorbell.util.Objects.requireNonNull;
+
+/**
+ * The condition holds a value pushed by its owner and notifies the listeners when the value
+ * changes. <br /><br />
+ *
+ * The changes are coalesced: the listeners are notified once with the latest value on the callback
+ * executor, the main thread on Android, no matter how many times the value is set before that. No
+ * notification is sent if the value is changed back. If constructed to resume the parked rings,
+ * the rings of this condition parked by the doorbells are resumed when the value becomes passed.
+ *
+ * @see AbstractDoorbell#setCallbackExecutor(Executor)
+ * @see AbstractDoorbell#resume(Condition)
+ */
+public class ObservableCondition implements Condition {
+
+    /**
+     * The current value
+     */
+    private volatile boolean value;
+
+    /**
+     * The value last notified, guarded by the lock
+     */
+    private boolean notifiedValue;
+
+    /**
+     * The lock of the value last notified, private so callers can never hold it
+     */
+    private final Object lock = new Object();
+
+    /**
+     * Whether to resume the parked rings of this condition when the value becomes passed
+     */
+    private final boolean resumeParked;
+
+    /**
+     * Whether the notification is scheduled
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    /**
+     * The listeners to be notified when changed
+     */
+    private final List<OnChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * The notification of the listeners
+     */
+    private final Runnable notification = new Runnable() {
+        @Override
+        public void run() {
+            scheduled.set(false);
+            notifyListeners();
+        }
+    };
+
+    /**
+     * Constructs a new observable condition, which never resumes the parked rings.
+     *
+     * @param value The initial value
+     */
+    public ObservableCondition(boolean value) {
+        this(value, false);
+    }
+
+    /**
+     * Constructs a new observable condition.
+     *
+     * @param value        The initial value
+     * @param resumeParked Whether to resume the parked rings of this condition by
+     *                     {@link AbstractDoorbell#resume(Condition)} when the value becomes passed
+     */
+    public ObservableCondition(boolean value, boolean resumeParked) {
+        this.value         = value;
+        this.notifiedValue = value;
+        this.resumeParked  = resumeParked;
+    }
+
+    @Override
+    public boolean test() {
+        return value;
+    }
+
+    /**
+     * Sets the value of this condition, the listeners will be notified later if changed.
+     *
+     * @param value The new value
+     */
+    public void set(boolean value) {
+        this.value = value;
+        if (!scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        Executor executor = AbstractDoorbell.getCallbackExecutor();
+        if (executor == null) {
+            notification.run();
+            return;
+        }
+        executor.execute(notification);
+    }
+
+    /**
+     * Adds a listener to be notified when the value changes.
+     *
+     * @param listener The listener
+     */
+    public void addOnChangeListener(OnChangeListener listener) {
+        listeners.add(requireNonNull(listener, "The on change listener must not be null."));
+    }
+
+    /**
+     * Removes a listener.
+     *
+     * @param listener The listener
+     */
+    public void removeOnChangeListener(OnChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Notifies the listeners with the latest value if changed since last notification.
+     */
+    private void notifyListeners() {
+        boolean value;
+        synchronized (lock) {
+            value = this.value;
+            if (value == notifiedValue) {
+                return;
+            }
+            notifiedValue = value;
+        }
+        for (OnChangeListener listener : listeners) {
+            listener.onChange(this, value);
+        }
+        if (value && resumeParked) {
+            AbstractDoorbell.resume(this);
+        }
+    }
+
+    /**
+     * The interface definition for a callback to be invoked when an observable condition changes.
+     */
+    public interface OnChangeListener {
+
+        /**
+         * Called when the value of the condition changes.
+         *
+         * @param condition The changed condition
+         * @param passed    The new value of the condition
+         */
+        void onChange(ObservableCondition condition, boolean passed);
+    }
+}
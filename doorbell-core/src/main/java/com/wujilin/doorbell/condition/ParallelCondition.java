@@ -0,0 +1,341 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.condition;
+
+import com.wujilin.doorbell.AbstractDoorbell;
+import com.wujilin.doorbell.Condition;
+import com.wujilin.doorbell.metrics.ConditionMetrics;
+import com.wujilin.doorbell.metrics.RingMetrics;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.wujilin.doorbell.util.Objects.requireNonNull;
+
+/**
+ * The condition combines independent conditions with the logical AND or OR and tests them
+ * concurrently, created by {@link CompositeCondition#parallel()}. <br /><br />
+ *
+ * The conditions are forked to a bounded pool and the testing thread waits for the decision. The
+ * parallel conditions nested in the default pool test the conditions not picked up by the pool yet
+ * by themselves, so the pool never waits for itself. A given executor must not be saturated by the
+ * nested parallel conditions. The conditions
+ * still running are cancelled by interruption as soon as the result is decided, e.g. the first
+ * blocked condition of an AND. The time of each condition tested is recorded by the installed
+ * {@link RingMetrics} if it implements {@link ConditionMetrics}, apart from the ring itself.
+ */
+public final class ParallelCondition implements Condition {
+
+    /**
+     * The maximum number of the threads of the default pool
+     */
+    private static final int MAX_THREADS = 4;
+
+    /**
+     * The seconds to keep the idle threads of the default pool alive
+     */
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    /**
+     * The default pool, created when needed
+     */
+    private static volatile Executor defaultExecutor;
+
+    /**
+     * Whether all of the conditions must be passed, otherwise any of them
+     */
+    private final boolean all;
+
+    /**
+     * The conditions to test
+     */
+    private final Condition[] conditions;
+
+    /**
+     * The executor to test the conditions
+     */
+    private final Executor executor;
+
+    /**
+     * Constructs a new parallel condition.
+     *
+     * @param all        Whether all of the conditions must be passed, otherwise any of them
+     * @param conditions The conditions to test
+     * @param executor   The executor to test the conditions
+     */
+    ParallelCondition(boolean all, Condition[] conditions, Executor executor) {
+        this.all        = all;
+        this.conditions = conditions;
+        this.executor   = requireNonNull(executor, "The executor must not be null.");
+    }
+
+    @Override
+    public boolean test() {
+        if (conditions.length == 0) {
+            return all;
+        }
+        if (conditions.length == 1) {
+            return measure(conditions[0]);
+        }
+        Decision decision = new Decision(conditions.length);
+        Fork[] forks      = new Fork[conditions.length];
+        for (int i = 0; i < forks.length; i++) {
+            forks[i] = new Fork(conditions[i], decision);
+        }
+        for (Fork fork : forks) {
+            executor.execute(fork);
+        }
+        if (Thread.currentThread() instanceof PoolThread) {
+            // nested in the pool, help by testing the conditions not picked up by the pool yet
+            for (int i = 0; i < forks.length && !decision.isDecided(); i++) {
+                forks[i].run();
+            }
+        }
+        try {
+            decision.await();
+        } catch (InterruptedException e) {
+            cancel(forks);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while testing the conditions.", e);
+        }
+        cancel(forks);
+        return decision.getResult();
+    }
+
+    /**
+     * Cancels the conditions still running.
+     *
+     * @param forks The forked conditions
+     */
+    private static void cancel(Fork[] forks) {
+        for (Fork fork : forks) {
+            fork.cancel(true);
+        }
+    }
+
+    /**
+     * Tests the condition and records the time as a part of the ring.
+     *
+     * @param condition The condition to test
+     * @return <code>true</code> if passed, otherwise <code>false</code>.
+     */
+    private static boolean measure(Condition condition) {
+        RingMetrics metrics = AbstractDoorbell.getMetrics();
+        if (!(metrics instanceof ConditionMetrics)) {
+            return condition.test();
+        }
+        long start     = System.nanoTime();
+        boolean passed = condition.test();
+        ((ConditionMetrics) metrics).onCondition(condition, passed, System.nanoTime() - start);
+        return passed;
+    }
+
+    /**
+     * Returns the default pool to test the conditions, bounded by the number of the processors.
+     *
+     * @return The default pool
+     */
+    static Executor getDefaultExecutor() {
+        Executor executor = defaultExecutor;
+        if (executor == null) {
+            synchronized (ParallelCondition.class) {
+                executor = defaultExecutor;
+                if (executor == null) {
+                    int threads = Math.max(2, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors()));
+                    ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads,
+                            KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                            new ThreadFactory() {
+                                private final AtomicInteger count = new AtomicInteger();
+
+                                @Override
+                                public Thread newThread(Runnable runnable) {
+                                    return new PoolThread(runnable, "Doorbell parallel #" + count.incrementAndGet());
+                                }
+                            });
+                    pool.allowCoreThreadTimeOut(true);
+                    executor = defaultExecutor = pool;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * The class represents a thread of the default pool.
+     */
+    private static final class PoolThread extends Thread {
+
+        /**
+         * Constructs a new daemon thread of the default pool.
+         *
+         * @param runnable The runnable to run
+         * @param name     The name of the thread
+         */
+        PoolThread(Runnable runnable, String name) {
+            super(runnable, name);
+            setDaemon(true);
+        }
+    }
+
+    /**
+     * The class represents the decision of a test, decided by the first decisive condition or by
+     * the last condition.
+     */
+    private final class Decision {
+
+        /**
+         * The latch released when decided
+         */
+        private final CountDownLatch decided = new CountDownLatch(1);
+
+        /**
+         * The number of the conditions not tested yet
+         */
+        private final AtomicInteger remaining;
+
+        /**
+         * The result, written before the latch is released
+         */
+        private volatile boolean result;
+
+        /**
+         * The failure of a condition, written before the latch is released
+         */
+        private volatile Throwable failure;
+
+        /**
+         * Constructs a new decision.
+         *
+         * @param count The number of the conditions
+         */
+        Decision(int count) {
+            this.remaining = new AtomicInteger(count);
+        }
+
+        /**
+         * Called when a condition is tested.
+         *
+         * @param passed The result of the condition
+         */
+        void onTested(boolean passed) {
+            if (passed != all) {
+                decide(passed, null);
+            } else if (remaining.decrementAndGet() == 0) {
+                decide(all, null);
+            }
+        }
+
+        /**
+         * Called when a condition fails.
+         *
+         * @param failure The failure
+         */
+        void onFailed(Throwable failure) {
+            decide(false, failure);
+        }
+
+        /**
+         * Decides the result if not decided.
+         *
+         * @param result  The result
+         * @param failure The failure, or <code>null</code> if none
+         */
+        private synchronized void decide(boolean result, Throwable failure) {
+            if (isDecided()) {
+                return;
+            }
+            this.result  = result;
+            this.failure = failure;
+            decided.countDown();
+        }
+
+        /**
+         * Test if the result is decided.
+         *
+         * @return <code>true</code> if decided, otherwise <code>false</code>.
+         */
+        boolean isDecided() {
+            return decided.getCount() == 0;
+        }
+
+        /**
+         * Waits until decided.
+         *
+         * @throws InterruptedException If interrupted while waiting
+         */
+        void await() throws InterruptedException {
+            decided.await();
+        }
+
+        /**
+         * Returns the result, or throws the failure of the condition.
+         *
+         * @return The result
+         */
+        boolean getResult() {
+            Throwable failure = this.failure;
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * The class represents a condition forked, run once by either the pool or the testing thread.
+     */
+    private static final class Fork extends FutureTask<Void> {
+
+        /**
+         * Constructs a new fork.
+         *
+         * @param condition The condition to test
+         * @param decision  The decision to report to
+         */
+        Fork(final Condition condition, final Decision decision) {
+            super(new Runnable() {
+                @Override
+                public void run() {
+                    if (decision.isDecided()) {
+                        return;
+                    }
+                    try {
+                        decision.onTested(measure(condition));
+                    } catch (RuntimeException | Error e) {
+                        decision.onFailed(e);
+                    }
+                }
+            }, null);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.door;
+
+import com.wujilin.doorbell.Door;
+import com.wujilin.doorbell.condition.CachedCondition;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.wujilin.doorbell.util.Objects.requireNonNull;
+
+/**
+ * The door caches the result of the condition of another door, the callbacks are passed to the
+ * door directly.
+ *
+ * @see CachedCondition
+ */
+public class CachedDoor extends CachedCondition implements Door {
+
+    /**
+     * The door to cache
+     */
+    private final Door door;
+
+    /**
+     * Constructs a new cached door whose result never expires until invalidated.
+     *
+     * @param door The door to cache
+     */
+    public CachedDoor(Door door) {
+        this(door, TTL_INFINITE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Constructs a new cached door.
+     *
+     * @param door The door to cache
+     * @param ttl  The time to live of the result
+     * @param unit The time unit of the time to live
+     */
+    public CachedDoor(Door door, long ttl, TimeUnit unit) {
+        super(requireNonNull(door, "The door must not be null."), ttl, unit);
+        this.door = door;
+    }
+
+    @Override
+    public void onAllow() {
+        door.onAllow();
+    }
+
+    @Override
+    public void onBlock() {
+        door.onBlock();
+    }
+
+    @Override
+    public void onComplete() {
+        door.onComplete();
+    }
+}
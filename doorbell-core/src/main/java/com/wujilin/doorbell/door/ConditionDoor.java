@@ -0,0 +1,83 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.door;
+
+import com.wujilin.doorbell.Condition;
+import com.wujilin.doorbell.Door;
+
+import static com.wujilin.doorbell.util.Objects.requireNonNull;
+
+/**
+ * A convenience class to extend when the door tests a given condition, e.g. a condition combined by
+ * {@link com.wujilin.doorbell.condition.Conditions}. The callbacks do nothing by default. <br /><br />
+ *
+ * When the doors are rung in a batch, the conditions shared by these doors are tested only once.
+ *
+ * @see com.wujilin.doorbell.AbstractDoorbell#ringAll(Door...)
+ */
+public class ConditionDoor implements Door {
+
+    /**
+     * The condition of the door
+     */
+    private final Condition condition;
+
+    /**
+     * Constructs a new condition door.
+     *
+     * @param condition The condition of the door
+     */
+    public ConditionDoor(Condition condition) {
+        this.condition = requireNonNull(condition, "The condition must not be null.");
+    }
+
+    /**
+     * Returns the condition of the door.
+     *
+     * @return The condition
+     */
+    public final Condition getCondition() {
+        return condition;
+    }
+
+    @Override
+    public final boolean test() {
+        return condition.test();
+    }
+
+    @Override
+    public void onAllow() {
+        // do nothing
+    }
+
+    @Override
+    public void onComplete() {
+        // do nothing
+    }
+
+    @Override
+    public void onBlock() {
+        // do nothing
+    }
+}
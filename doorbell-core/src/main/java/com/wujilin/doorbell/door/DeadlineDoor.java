@@ -0,0 +1,88 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.door;
+
+import com.wujilin.doorbell.Door;
+import com.wujilin.doorbell.condition.DeadlineCondition;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static com.wujilin.doorbell.util.Objects.requireNonNull;
+
+/**
+ * The door tests another door within a time budget, the fallback decision is used if the door
+ * misses the deadline. The callbacks are delegated to the door.
+ *
+ * @see DeadlineCondition
+ */
+public class DeadlineDoor extends DeadlineCondition implements Door {
+
+    /**
+     * The door to test
+     */
+    private final Door door;
+
+    /**
+     * Constructs a new deadline door testing on the default executor.
+     *
+     * @param door     The door to test
+     * @param budget   The time budget
+     * @param unit     The time unit of the budget
+     * @param fallback The fallback decision when missing the deadline
+     */
+    public DeadlineDoor(Door door, long budget, TimeUnit unit, Fallback fallback) {
+        super(requireNonNull(door, "The door must not be null."), budget, unit, fallback);
+        this.door = door;
+    }
+
+    /**
+     * Constructs a new deadline door.
+     *
+     * @param door     The door to test
+     * @param budget   The time budget
+     * @param unit     The time unit of the budget
+     * @param fallback The fallback decision when missing the deadline
+     * @param executor The executor to test the door
+     */
+    public DeadlineDoor(Door door, long budget, TimeUnit unit, Fallback fallback, Executor executor) {
+        super(requireNonNull(door, "The door must not be null."), budget, unit, fallback, executor);
+        this.door = door;
+    }
+
+    @Override
+    public void onAllow() {
+        door.onAllow();
+    }
+
+    @Override
+    public void onBlock() {
+        door.onBlock();
+    }
+
+    @Override
+    public void onComplete() {
+        door.onComplete();
+    }
+}
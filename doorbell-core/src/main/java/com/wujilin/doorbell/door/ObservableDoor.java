@@ -0,0 +1,71 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.door;
+
+import com.wujilin.doorbell.Door;
+import com.wujilin.doorbell.condition.ObservableCondition;
+
+/**
+ * A convenience class to extend when the door pushes its condition, e.g. a login door sets its
+ * value when the user logs in or out. The callbacks do nothing by default.
+ *
+ * @see ObservableCondition
+ */
+public class ObservableDoor extends ObservableCondition implements Door {
+
+    /**
+     * Constructs a new observable door, which never resumes the parked rings.
+     *
+     * @param value The initial value of the condition
+     */
+    public ObservableDoor(boolean value) {
+        super(value);
+    }
+
+    /**
+     * Constructs a new observable door.
+     *
+     * @param value        The initial value of the condition
+     * @param resumeParked Whether to resume the parked rings of this door when the value becomes
+     *                     passed
+     */
+    public ObservableDoor(boolean value, boolean resumeParked) {
+        super(value, resumeParked);
+    }
+
+    @Override
+    public void onAllow() {
+        // do nothing
+    }
+
+    @Override
+    public void onComplete() {
+        // do nothing
+    }
+
+    @Override
+    public void onBlock() {
+        // do nothing
+    }
+}
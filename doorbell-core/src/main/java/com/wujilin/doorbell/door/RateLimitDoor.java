@@ -0,0 +1,115 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.door;
+
+import com.wujilin.doorbell.Door;
+import com.wujilin.doorbell.util.Clock;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.wujilin.doorbell.util.Objects.requireNonNull;
+
+/**
+ * The door allows at most a number of rings per window, e.g. to keep the expensive destinations
+ * from being opened repeatedly. Each allowed test takes a permit from the bucket of the key in the
+ * rate limiter, the doors of the same key share the bucket. The callbacks do nothing by default,
+ * override {@link #onBlock()} to tell the user to try again later. <br /><br />
+ *
+ * A permit is taken when the door is tested, so put the door after the other doors likely to block
+ * if the rings blocked by them should not count.
+ *
+ * @see RateLimiter
+ */
+public class RateLimitDoor implements Door {
+
+    /**
+     * The rate limiter holding the buckets
+     */
+    private final RateLimiter limiter;
+
+    /**
+     * The key of the bucket
+     */
+    private final Object key;
+
+    /**
+     * Constructs a new door with its own bucket.
+     *
+     * @param permits The number of the permits per window
+     * @param window  The window
+     * @param unit    The time unit of the window
+     */
+    public RateLimitDoor(int permits, long window, TimeUnit unit) {
+        this(new RateLimiter(permits, window, unit, 1, Clock.SYSTEM), RateLimitDoor.class);
+    }
+
+    /**
+     * Constructs a new door taking the permits of the given key.
+     *
+     * @param limiter The rate limiter holding the buckets
+     * @param key     The key of the bucket, e.g. the activity class
+     */
+    public RateLimitDoor(RateLimiter limiter, Object key) {
+        this.limiter = requireNonNull(limiter, "The rate limiter must not be null.");
+        this.key     = requireNonNull(key, "The key must not be null.");
+    }
+
+    /**
+     * Returns the rate limiter holding the buckets.
+     *
+     * @return The rate limiter
+     */
+    public final RateLimiter getLimiter() {
+        return limiter;
+    }
+
+    /**
+     * Returns the key of the bucket.
+     *
+     * @return The key
+     */
+    public final Object getKey() {
+        return key;
+    }
+
+    @Override
+    public final boolean test() {
+        return limiter.tryAcquire(key);
+    }
+
+    @Override
+    public void onAllow() {
+        // do nothing
+    }
+
+    @Override
+    public void onComplete() {
+        // do nothing
+    }
+
+    @Override
+    public void onBlock() {
+        // do nothing
+    }
+}
@@ -0,0 +1,271 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.door;
+
+import com.wujilin.doorbell.Door;
+import com.wujilin.doorbell.util.Clock;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.wujilin.doorbell.util.Objects.requireNonNull;
+
+/**
+ * The rate limiter allows at most a number of permits per window for each key, e.g. the activity
+ * class or any other key of the destination. <br /><br />
+ *
+ * Each key has a token bucket holding up to the number of permits and refilling one permit every
+ * window divided by the number of permits. A bucket is kept as a single theoretical arrival time
+ * updated by compare-and-set, so acquiring a permit takes no locks. <br /><br />
+ *
+ * The number of the buckets is bounded, the idle buckets, that is the full ones, are evicted first
+ * when the bound is exceeded, which loses nothing since a new bucket is full too. The busy buckets
+ * are only evicted if there are more busy keys than the bound, granting their keys a full bucket.
+ *
+ * @see RateLimitDoor
+ */
+public class RateLimiter {
+
+    /**
+     * The default maximum number of the buckets
+     */
+    public static final int DEFAULT_MAX_KEYS = 64;
+
+    /**
+     * The number of the permits per window
+     */
+    private final int permits;
+
+    /**
+     * The interval to refill a permit in nanoseconds
+     */
+    private final long interval;
+
+    /**
+     * The maximum lead of the theoretical arrival time over the current time in nanoseconds
+     */
+    private final long tolerance;
+
+    /**
+     * The maximum number of the buckets
+     */
+    private final int maxKeys;
+
+    /**
+     * The clock to refill the buckets
+     */
+    private final Clock clock;
+
+    /**
+     * The buckets keyed by the keys
+     */
+    private final ConcurrentMap<Object, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * The number of the acquired permits
+     */
+    private final AtomicLong acquiredCount = new AtomicLong();
+
+    /**
+     * The number of the rejected acquisitions
+     */
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    /**
+     * Constructs a new rate limiter.
+     *
+     * @param permits The number of the permits per window
+     * @param window  The window
+     * @param unit    The time unit of the window
+     */
+    public RateLimiter(int permits, long window, TimeUnit unit) {
+        this(permits, window, unit, DEFAULT_MAX_KEYS, Clock.SYSTEM);
+    }
+
+    /**
+     * Constructs a new rate limiter.
+     *
+     * @param permits The number of the permits per window
+     * @param window  The window
+     * @param unit    The time unit of the window
+     * @param maxKeys The maximum number of the buckets
+     * @param clock   The clock to refill the buckets
+     */
+    public RateLimiter(int permits, long window, TimeUnit unit, int maxKeys, Clock clock) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("The permits must be positive.");
+        }
+        if (window <= 0) {
+            throw new IllegalArgumentException("The window must be positive.");
+        }
+        if (maxKeys <= 0) {
+            throw new IllegalArgumentException("The maximum number of keys must be positive.");
+        }
+        long nanos     = requireNonNull(unit, "The time unit must not be null.").toNanos(window);
+        this.permits   = permits;
+        this.interval  = Math.max(nanos / permits, 1);
+        this.tolerance = interval * (permits - 1);
+        this.maxKeys   = maxKeys;
+        this.clock     = requireNonNull(clock, "The clock must not be null.");
+    }
+
+    /**
+     * Acquires a permit of the given key if available.
+     *
+     * @param key The key of the bucket
+     * @return <code>true</code> if acquired, otherwise <code>false</code>.
+     */
+    public boolean tryAcquire(Object key) {
+        AtomicLong bucket = bucket(requireNonNull(key, "The key must not be null."));
+        while (true) {
+            long now    = clock.nanoTime();
+            long stored = bucket.get();
+            long tat    = stored - now > 0 ? stored : now;
+            if (tat - now > tolerance) {
+                rejectedCount.incrementAndGet();
+                return false;
+            }
+            if (bucket.compareAndSet(stored, tat + interval)) {
+                acquiredCount.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of the permits of the given key available now.
+     *
+     * @param key The key of the bucket
+     * @return The number of the available permits
+     */
+    public int getAvailablePermits(Object key) {
+        AtomicLong bucket = buckets.get(requireNonNull(key, "The key must not be null."));
+        if (bucket == null) {
+            return permits;
+        }
+        long lead = bucket.get() - clock.nanoTime();
+        if (lead <= 0) {
+            return permits;
+        }
+        if (lead > tolerance) {
+            // rejected by tryAcquire, the division below truncates toward zero
+            return 0;
+        }
+        return (int) ((tolerance - lead) / interval + 1);
+    }
+
+    /**
+     * Refills the bucket of the given key.
+     *
+     * @param key The key of the bucket
+     */
+    public void reset(Object key) {
+        buckets.remove(requireNonNull(key, "The key must not be null."));
+    }
+
+    /**
+     * Returns a door allowing the rings while the given key has permits.
+     *
+     * @param key The key of the bucket
+     * @return The door
+     */
+    public Door door(Object key) {
+        return new RateLimitDoor(this, key);
+    }
+
+    /**
+     * Returns the number of the buckets.
+     *
+     * @return The number of the buckets
+     */
+    public int getBucketCount() {
+        return buckets.size();
+    }
+
+    /**
+     * Returns the number of the acquired permits.
+     *
+     * @return The number of the acquired permits
+     */
+    public long getAcquiredCount() {
+        return acquiredCount.get();
+    }
+
+    /**
+     * Returns the number of the rejected acquisitions.
+     *
+     * @return The number of the rejected acquisitions
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * Returns the bucket of the given key, creates a full one if absent.
+     *
+     * @param key The key of the bucket
+     * @return The bucket
+     */
+    private AtomicLong bucket(Object key) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        AtomicLong created = new AtomicLong(clock.nanoTime());
+        bucket             = buckets.putIfAbsent(key, created);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() > maxKeys) {
+            evict(key);
+        }
+        return created;
+    }
+
+    /**
+     * Evicts the buckets until the bound is met, the idle buckets first.
+     *
+     * @param kept The key of the bucket just created, never evicted
+     */
+    private void evict(Object kept) {
+        long now = clock.nanoTime();
+        for (Iterator<Map.Entry<Object, AtomicLong>> iterator = buckets.entrySet().iterator();
+             iterator.hasNext() && buckets.size() > maxKeys; ) {
+            Map.Entry<Object, AtomicLong> entry = iterator.next();
+            if (!entry.getKey().equals(kept) && entry.getValue().get() - now <= 0) {
+                iterator.remove();
+            }
+        }
+        for (Iterator<Object> iterator = buckets.keySet().iterator();
+             iterator.hasNext() && buckets.size() > maxKeys; ) {
+            if (!iterator.next().equals(kept)) {
+                iterator.remove();
+            }
+        }
+    }
+}
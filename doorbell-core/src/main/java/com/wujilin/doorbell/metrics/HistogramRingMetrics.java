@@ -0,0 +1,335 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.metrics;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The ring metrics counting the allowed and blocked rings and recording the latency histograms of
+ * each phase per door. <br /><br />
+ *
+ * The metrics are keyed by the identity of the door, so two doors of the same class, such as two
+ * {@link com.wujilin.doorbell.door.ConditionDoor}s, have their own metrics. The doors are weakly
+ * referenced, the metrics of a collected door are dropped. The number of the keys is bounded, the
+ * doors beyond the bound share the metrics keyed by {@link #OTHERS}. The conditions tested as a part
+ * of a ring, such as the conditions of a parallel condition, are recorded apart from the doors by
+ * {@link #onCondition(Object, boolean, long)}, so each ring is counted once.
+ */
+public class HistogramRingMetrics implements RingMetrics, ConditionMetrics {
+
+    /**
+     * The default maximum number of the doors
+     */
+    public static final int DEFAULT_MAX_DOORS = 64;
+
+    /**
+     * The key of the metrics shared by the doors beyond the bound and the <code>null</code> doors
+     */
+    public static final Object OTHERS = new Object();
+
+    /**
+     * The maximum number of the doors
+     */
+    private final int maxDoors;
+
+    /**
+     * The metrics of the doors keyed by the weak identities of the doors
+     */
+    private final ConcurrentMap<DoorKey, DoorMetrics> doors = new ConcurrentHashMap<>();
+
+    /**
+     * The metrics of the conditions tested as a part of a ring keyed by the weak identities of the
+     * conditions
+     */
+    private final ConcurrentMap<DoorKey, DoorMetrics> conditions = new ConcurrentHashMap<>();
+
+    /**
+     * The queue of the keys of the collected doors and conditions
+     */
+    private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+
+    /**
+     * Constructs a new histogram ring metrics with the default maximum number of the doors.
+     */
+    public HistogramRingMetrics() {
+        this(DEFAULT_MAX_DOORS);
+    }
+
+    /**
+     * Constructs a new histogram ring metrics.
+     *
+     * @param maxDoors The maximum number of the doors
+     */
+    public HistogramRingMetrics(int maxDoors) {
+        if (maxDoors <= 0) {
+            throw new IllegalArgumentException("The maximum number of doors must be positive.");
+        }
+        this.maxDoors = maxDoors;
+    }
+
+    @Override
+    public void onTest(Object door, boolean passed, long nanos) {
+        getOrCreate(doors, door).onTest(passed, nanos);
+    }
+
+    @Override
+    public void onPhase(Object door, int phase, long nanos) {
+        getOrCreate(doors, door).histograms[phase].record(nanos);
+    }
+
+    @Override
+    public void onCondition(Object condition, boolean passed, long nanos) {
+        getOrCreate(conditions, condition).onTest(passed, nanos);
+    }
+
+    /**
+     * Returns the metrics of the given door.
+     *
+     * @param door The door, or {@link #OTHERS} for the doors beyond the bound
+     * @return The metrics, or <code>null</code> if never rung
+     */
+    public DoorMetrics get(Object door) {
+        return doors.get(new DoorKey(door));
+    }
+
+    /**
+     * Returns the metrics of all doors.
+     *
+     * @return The unmodifiable map of the metrics keyed by the doors by identity
+     */
+    public Map<Object, DoorMetrics> getAll() {
+        return snapshot(doors);
+    }
+
+    /**
+     * Returns the metrics of the given condition tested as a part of a ring, the allowed and
+     * blocked counts are the numbers of the passed and blocked tests.
+     *
+     * @param condition The condition, or {@link #OTHERS} for the conditions beyond the bound
+     * @return The metrics, or <code>null</code> if never tested
+     */
+    public DoorMetrics getCondition(Object condition) {
+        return conditions.get(new DoorKey(condition));
+    }
+
+    /**
+     * Returns the metrics of all conditions tested as a part of a ring.
+     *
+     * @return The unmodifiable map of the metrics keyed by the conditions by identity
+     */
+    public Map<Object, DoorMetrics> getAllConditions() {
+        return snapshot(conditions);
+    }
+
+    /**
+     * Clears the metrics of all doors and conditions.
+     */
+    public void clear() {
+        doors.clear();
+        conditions.clear();
+    }
+
+    /**
+     * Returns the metrics of the given door in the given map, creates it if absent.
+     *
+     * @param doors The metrics keyed by the weak identities of the doors
+     * @param door  The door
+     * @return The metrics of the door
+     */
+    private DoorMetrics getOrCreate(ConcurrentMap<DoorKey, DoorMetrics> doors, Object door) {
+        DoorKey key         = new DoorKey(door == null ? OTHERS : door);
+        DoorMetrics metrics = doors.get(key);
+        if (metrics != null) {
+            return metrics;
+        }
+        expunge();
+        if (doors.size() >= maxDoors) {
+            key     = new DoorKey(OTHERS);
+            metrics = doors.get(key);
+            if (metrics != null) {
+                return metrics;
+            }
+        }
+        metrics              = new DoorMetrics();
+        DoorMetrics previous = doors.putIfAbsent(new DoorKey(key.get(), collected), metrics);
+        return previous == null ? metrics : previous;
+    }
+
+    /**
+     * Drops the metrics of the collected doors and conditions.
+     */
+    private void expunge() {
+        Object key;
+        while ((key = collected.poll()) != null) {
+            doors.remove(key);
+            conditions.remove(key);
+        }
+    }
+
+    /**
+     * Copies the metrics of the doors not collected.
+     *
+     * @param doors The metrics keyed by the weak identities of the doors
+     * @return The unmodifiable map of the metrics keyed by the doors by identity
+     */
+    private static Map<Object, DoorMetrics> snapshot(ConcurrentMap<DoorKey, DoorMetrics> doors) {
+        Map<Object, DoorMetrics> snapshot = new IdentityHashMap<>();
+        for (Map.Entry<DoorKey, DoorMetrics> entry : doors.entrySet()) {
+            Object door = entry.getKey().get();
+            if (door != null) {
+                snapshot.put(door, entry.getValue());
+            }
+        }
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    /**
+     * The key of a door by identity, which never retains the door.
+     */
+    private static final class DoorKey extends WeakReference<Object> {
+
+        /**
+         * The identity hash code of the door
+         */
+        private final int hash;
+
+        /**
+         * Constructs a key to look up.
+         *
+         * @param door The door
+         */
+        DoorKey(Object door) {
+            super(door);
+            this.hash = System.identityHashCode(door);
+        }
+
+        /**
+         * Constructs a key to keep, which is enqueued when the door is collected.
+         *
+         * @param door  The door
+         * @param queue The queue of the keys of the collected doors
+         */
+        DoorKey(Object door, ReferenceQueue<Object> queue) {
+            super(door, queue);
+            this.hash = System.identityHashCode(door);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (object == this) {
+                return true;
+            }
+            if (!(object instanceof DoorKey)) {
+                return false;
+            }
+            Object door = get();
+            return door != null && door == ((DoorKey) object).get();
+        }
+    }
+
+    /**
+     * The metrics of a door.
+     */
+    public static final class DoorMetrics {
+
+        /**
+         * The number of the allowed rings
+         */
+        private final AtomicLong allowCount = new AtomicLong();
+
+        /**
+         * The number of the blocked rings
+         */
+        private final AtomicLong blockCount = new AtomicLong();
+
+        /**
+         * The latency histograms of the phases
+         */
+        private final LatencyHistogram[] histograms = new LatencyHistogram[PHASE_COUNT];
+
+        /**
+         * Constructs a new door metrics.
+         */
+        DoorMetrics() {
+            for (int i = 0; i < PHASE_COUNT; i++) {
+                histograms[i] = new LatencyHistogram();
+            }
+        }
+
+        /**
+         * Records a test.
+         *
+         * @param passed The result of the test
+         * @param nanos  The nanoseconds of the test
+         */
+        void onTest(boolean passed, long nanos) {
+            if (passed) {
+                allowCount.incrementAndGet();
+            } else {
+                blockCount.incrementAndGet();
+            }
+            histograms[PHASE_TEST].record(nanos);
+        }
+
+        /**
+         * Returns the number of the allowed rings.
+         *
+         * @return The number of the allowed rings
+         */
+        public long getAllowCount() {
+            return allowCount.get();
+        }
+
+        /**
+         * Returns the number of the blocked rings.
+         *
+         * @return The number of the blocked rings
+         */
+        public long getBlockCount() {
+            return blockCount.get();
+        }
+
+        /**
+         * Returns the snapshot of the latency histogram of the given phase.
+         *
+         * @param phase The phase of the ringing, one of the <code>PHASE_*</code> constants
+         * @return The snapshot of the latency histogram
+         */
+        public LatencyHistogram.Snapshot getLatency(int phase) {
+            return histograms[phase].snapshot();
+        }
+    }
+}
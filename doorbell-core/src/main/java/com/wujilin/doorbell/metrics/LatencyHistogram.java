@@ -0,0 +1,235 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The lock-free histogram of the latencies in nanoseconds with fixed memory. <br /><br />
+ *
+ * The values are counted in log-linear buckets like the HDR histograms: each power of two is split
+ * into {@link #SUB_BUCKET_COUNT} buckets, so the percentiles are accurate within 12.5%. The values
+ * larger than 2<sup>40</sup> nanoseconds (about 18 minutes) are counted in the last bucket.
+ */
+public final class LatencyHistogram {
+
+    /**
+     * The bits of the sub buckets of each power of two
+     */
+    private static final int SUB_BUCKET_BITS = 3;
+
+    /**
+     * The number of the sub buckets of each power of two
+     */
+    public static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * The exponent of the largest power of two counted exactly
+     */
+    private static final int MAX_EXPONENT = 40;
+
+    /**
+     * The number of the buckets
+     */
+    static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+    /**
+     * The counts of the buckets
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    /**
+     * The number of the values
+     */
+    private final AtomicLong count = new AtomicLong();
+
+    /**
+     * The sum of the values
+     */
+    private final AtomicLong sum = new AtomicLong();
+
+    /**
+     * The maximum value
+     */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a value.
+     *
+     * @param nanos The value in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts.incrementAndGet(indexOf(nanos));
+        count.incrementAndGet();
+        sum.addAndGet(nanos);
+        long current;
+        while (nanos > (current = max.get())) {
+            if (max.compareAndSet(current, nanos)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of this histogram. The snapshot is not atomic if recording concurrently,
+     * the values being recorded may be missing from some of the statistics.
+     *
+     * @return The snapshot
+     */
+    public Snapshot snapshot() {
+        long[] buckets = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = counts.get(i);
+        }
+        return new Snapshot(buckets, count.get(), sum.get(), max.get());
+    }
+
+    /**
+     * Returns the index of the bucket of the given value.
+     *
+     * @param value The non-negative value
+     * @return The index of the bucket
+     */
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int index = (shift + 1) * SUB_BUCKET_COUNT + (int) ((value >>> shift) & (SUB_BUCKET_COUNT - 1));
+        return Math.min(index, BUCKET_COUNT - 1);
+    }
+
+    /**
+     * Returns the largest value counted in the given bucket.
+     *
+     * @param index The index of the bucket
+     * @return The largest value of the bucket
+     */
+    static long highestValueOf(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long sub  = SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT;
+        return ((sub + 1) << shift) - 1;
+    }
+
+    /**
+     * The immutable snapshot of a latency histogram.
+     */
+    public static final class Snapshot {
+
+        /**
+         * The counts of the buckets
+         */
+        private final long[] buckets;
+
+        /**
+         * The number of the values
+         */
+        private final long count;
+
+        /**
+         * The sum of the values
+         */
+        private final long sum;
+
+        /**
+         * The maximum value
+         */
+        private final long max;
+
+        /**
+         * Constructs a new snapshot.
+         *
+         * @param buckets The counts of the buckets
+         * @param count   The number of the values
+         * @param sum     The sum of the values
+         * @param max     The maximum value
+         */
+        Snapshot(long[] buckets, long count, long sum, long max) {
+            this.buckets = buckets;
+            this.count   = count;
+            this.sum     = sum;
+            this.max     = max;
+        }
+
+        /**
+         * Returns the number of the values.
+         *
+         * @return The number of the values
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Returns the mean of the values.
+         *
+         * @return The mean in nanoseconds, or <code>0</code> if no values
+         */
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * Returns the maximum value.
+         *
+         * @return The maximum value in nanoseconds
+         */
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * Returns the value at the given percentile.
+         *
+         * @param percentile The percentile between 0 and 100, e.g. 99.9
+         * @return The value in nanoseconds, or <code>0</code> if no values
+         */
+        public long getValueAtPercentile(double percentile) {
+            long total = 0;
+            for (long bucket : buckets) {
+                total += bucket;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            double ratio = Math.min(Math.max(percentile, 0), 100) / 100;
+            long rank    = Math.max(1, (long) Math.ceil(ratio * total));
+            long seen    = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return Math.min(highestValueOf(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.metrics;
+
+/**
+ * The interface to record the metrics of the ringing, installed by
+ * {@link com.wujilin.doorbell.AbstractDoorbell#setMetrics(RingMetrics)}. <br /><br />
+ *
+ * The methods are called on the ringing thread and must be cheap and thread-safe. No metrics are
+ * recorded and no time is measured if no metrics installed.
+ *
+ * @see HistogramRingMetrics
+ */
+public interface RingMetrics {
+
+    /**
+     * The phase testing the condition or the door
+     */
+    int PHASE_TEST = 0;
+
+    /**
+     * The phase calling the onAllow callbacks, including starting the activities
+     */
+    int PHASE_ALLOW = 1;
+
+    /**
+     * The phase calling the onBlock callbacks
+     */
+    int PHASE_BLOCK = 2;
+
+    /**
+     * The phase calling the onComplete callbacks
+     */
+    int PHASE_COMPLETE = 3;
+
+    /**
+     * The phase starting the activities by the starter
+     */
+    int PHASE_START = 4;
+
+    /**
+     * The phase overriding the pending transition after starting the activities
+     */
+    int PHASE_TRANSITION = 5;
+
+    /**
+     * The number of the phases
+     */
+    int PHASE_COUNT = 6;
+
+    /**
+     * Called when the condition or the door is tested.
+     *
+     * @param door   The involved door, or the condition if no door involved
+     * @param passed The result of the test
+     * @param nanos  The nanoseconds of the test
+     */
+    void onTest(Object door, boolean passed, long nanos);
+
+    /**
+     * Called when a phase of the ringing is finished.
+     *
+     * @param door  The involved door, or the condition if no door involved
+     * @param phase The phase of the ringing, one of the <code>PHASE_*</code> constants
+     * @param nanos The nanoseconds of the phase
+     */
+    void onPhase(Object door, int phase, long nanos);
+}
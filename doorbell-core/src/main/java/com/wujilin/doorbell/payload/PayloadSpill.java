@@ -0,0 +1,262 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.payload;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The memory-mapped file keeping the serialized payloads. <br /><br />
+ *
+ * The payloads are appended as the records of the token, the length and the bytes after a header
+ * of the magic number and the end of the records. When full, the oldest records are dropped until
+ * the new one fits and the rest are moved to the front, so a full file never loses the recent
+ * payloads. The index of the records is rebuilt by scanning the file when opened, e.g. after the
+ * process is recreated. <br /><br />
+ *
+ * The payloads are serialized and deserialized outside the lock of the file, only the copies of
+ * the bytes are guarded, so the file can be written by a background thread while read.
+ */
+final class PayloadSpill {
+
+    /**
+     * The magic number of the file
+     */
+    private static final int MAGIC = 0x44425031;
+
+    /**
+     * The size of the header
+     */
+    private static final int HEADER_SIZE = 8;
+
+    /**
+     * The size of the head of a record
+     */
+    private static final int RECORD_HEAD_SIZE = 12;
+
+    /**
+     * The size of the chunks to move the records
+     */
+    private static final int CHUNK_SIZE = 8192;
+
+    /**
+     * The buffer mapped to the file
+     */
+    private final MappedByteBuffer buffer;
+
+    /**
+     * The offsets of the records keyed by the tokens, guarded by the spill
+     */
+    private final Map<Long, Integer> offsets = new HashMap<>();
+
+    /**
+     * Constructs a new spill file.
+     *
+     * @param file     The file
+     * @param maxBytes The maximum size of the file
+     * @throws IOException If failed to map the file
+     */
+    PayloadSpill(File file, int maxBytes) throws IOException {
+        if (maxBytes <= HEADER_SIZE + RECORD_HEAD_SIZE) {
+            throw new IllegalArgumentException("The maximum size of the spill file is too small.");
+        }
+        RandomAccessFile access = new RandomAccessFile(file, "rw");
+        try {
+            buffer = access.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, maxBytes);
+        } finally {
+            // the mapping stays valid after the file is closed
+            access.close();
+        }
+        if (buffer.getInt(0) != MAGIC || !index()) {
+            clear();
+        }
+    }
+
+    /**
+     * Builds the index of the records.
+     *
+     * @return <code>true</code> if the records are valid, otherwise <code>false</code>.
+     */
+    private boolean index() {
+        offsets.clear();
+        int end = buffer.getInt(4);
+        if (end < HEADER_SIZE || end > buffer.capacity()) {
+            return false;
+        }
+        int offset = HEADER_SIZE;
+        while (offset < end) {
+            if (end - offset < RECORD_HEAD_SIZE) {
+                return false;
+            }
+            long token = buffer.getLong(offset);
+            int length = buffer.getInt(offset + 8);
+            if (length < 0 || length > end - offset - RECORD_HEAD_SIZE) {
+                return false;
+            }
+            offsets.put(token, offset);
+            offset += RECORD_HEAD_SIZE + length;
+        }
+        return true;
+    }
+
+    /**
+     * Clears the records.
+     */
+    private void clear() {
+        offsets.clear();
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, HEADER_SIZE);
+    }
+
+    /**
+     * Test if the payload of the token is written.
+     *
+     * @param token The token
+     * @return <code>true</code> if written, otherwise <code>false</code>.
+     */
+    synchronized boolean contains(long token) {
+        return offsets.containsKey(token);
+    }
+
+    /**
+     * Writes a payload, the payload is dropped if too large for the file or failed to serialize.
+     *
+     * @param token   The token
+     * @param payload The payload
+     */
+    void write(long token, Serializable payload) {
+        if (contains(token)) {
+            return;
+        }
+        byte[] bytes;
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ObjectOutputStream stream = new ObjectOutputStream(out);
+            stream.writeObject(payload);
+            stream.close();
+            bytes = out.toByteArray();
+        } catch (IOException e) {
+            return;
+        }
+        append(token, bytes);
+    }
+
+    /**
+     * Appends a record, drops the oldest records if not enough space.
+     *
+     * @param token The token
+     * @param bytes The serialized payload
+     */
+    private synchronized void append(long token, byte[] bytes) {
+        int size = RECORD_HEAD_SIZE + bytes.length;
+        if (size > buffer.capacity() - HEADER_SIZE || offsets.containsKey(token)) {
+            return;
+        }
+        int end = buffer.getInt(4);
+        if (size > buffer.capacity() - end) {
+            end = compact(size);
+        }
+        buffer.putLong(end, token);
+        buffer.putInt(end + 8, bytes.length);
+        ByteBuffer records = buffer.duplicate();
+        records.position(end + RECORD_HEAD_SIZE);
+        records.put(bytes);
+
+        // publish the record by moving the end after it is written
+        buffer.putInt(4, end + size);
+        offsets.put(token, end);
+    }
+
+    /**
+     * Drops the oldest records until the given size fits, and moves the rest to the front.
+     *
+     * @param size The size to fit
+     * @return The new end of the records
+     */
+    private int compact(int size) {
+        int end   = buffer.getInt(4);
+        int first = HEADER_SIZE;
+        while (size > buffer.capacity() - HEADER_SIZE - (end - first)) {
+            first += RECORD_HEAD_SIZE + buffer.getInt(first + 8);
+        }
+
+        // empties the file while moving, so a crash never leaves the records half moved
+        buffer.putInt(4, HEADER_SIZE);
+        byte[] chunk = new byte[Math.min(CHUNK_SIZE, Math.max(end - first, 1))];
+        ByteBuffer source = buffer.duplicate();
+        ByteBuffer target = buffer.duplicate();
+        source.position(first);
+        target.position(HEADER_SIZE);
+        // the target is before the source, so the chunks copied forwards never overwrite the rest
+        for (int remaining = end - first; remaining > 0; remaining -= chunk.length) {
+            int length = Math.min(chunk.length, remaining);
+            source.get(chunk, 0, length);
+            target.put(chunk, 0, length);
+        }
+        buffer.putInt(4, HEADER_SIZE + end - first);
+        index();
+        return HEADER_SIZE + end - first;
+    }
+
+    /**
+     * Reads a payload.
+     *
+     * @param token The token
+     * @return The payload, or <code>null</code> if not found or failed to deserialize
+     */
+    Object read(long token) {
+        byte[] bytes;
+        synchronized (this) {
+            Integer offset = offsets.get(token);
+            if (offset == null) {
+                return null;
+            }
+            bytes = new byte[buffer.getInt(offset + 8)];
+            ByteBuffer records = buffer.duplicate();
+            records.position(offset + RECORD_HEAD_SIZE);
+            records.get(bytes);
+        }
+        try {
+            ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(bytes));
+            try {
+                return stream.readObject();
+            } finally {
+                stream.close();
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,467 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.payload;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static com.wujilin.doorbell.util.Objects.requireNonNull;
+
+/**
+ * The store hands the payloads off in the process, only a small token travels with the request
+ * instead of the marshalled payload. <br /><br />
+ *
+ * The payloads are kept in memory by the least recently used order, bounded by the estimated
+ * bytes of the payloads, and are resolved by the tokens in O(1). The bytes of a payload are
+ * estimated by {@link #sizeOf(Object)}, or given by {@link #put(Object, long)}. If a spill file is
+ * given, the serializable payloads evicted or spilled by {@link #spill()} are serialized and
+ * written to the memory-mapped file on a background thread, so the tokens can still be resolved
+ * after the process is recreated. An evicted payload is resolved from memory until it is written.
+ * The tokens carry a random prefix of the process, so the tokens of different processes never
+ * collide.
+ */
+public class PayloadStore {
+
+    /**
+     * The default maximum estimated bytes of the payloads kept in memory
+     */
+    public static final long DEFAULT_MAX_BYTES = 4 * 1024 * 1024;
+
+    /**
+     * The token represents no payload
+     */
+    public static final long NO_TOKEN = 0;
+
+    /**
+     * The estimated bytes of a payload of an unknown size
+     */
+    private static final long UNKNOWN_SIZE = 1024;
+
+    /**
+     * The estimated bytes of a reference in an array
+     */
+    private static final long REFERENCE_SIZE = 4;
+
+    /**
+     * The seconds to keep the idle thread of the default spill executor alive
+     */
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    /**
+     * The default executor to spill the payloads, created when needed
+     */
+    private static volatile Executor defaultExecutor;
+
+    /**
+     * The payloads kept in memory by the least recently used order
+     */
+    private final LinkedHashMap<Long, Entry> entries;
+
+    /**
+     * The payloads evicted but not written to the spill file yet
+     */
+    private final Map<Long, Object> spilling = new HashMap<>();
+
+    /**
+     * The maximum estimated bytes of the payloads kept in memory
+     */
+    private final long maxBytes;
+
+    /**
+     * The spill file, or <code>null</code> if not spilled
+     */
+    private final PayloadSpill spill;
+
+    /**
+     * The executor to write the spill file, or <code>null</code> if not spilled
+     */
+    private final Executor executor;
+
+    /**
+     * The random prefix of the tokens of this process
+     */
+    private final long prefix;
+
+    /**
+     * The estimated bytes of the payloads kept in memory
+     */
+    private long bytes;
+
+    /**
+     * The sequence of the tokens
+     */
+    private int sequence;
+
+    /**
+     * Constructs a new in-memory store with the default maximum bytes.
+     */
+    public PayloadStore() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Constructs a new in-memory store.
+     *
+     * @param maxBytes The maximum estimated bytes of the payloads kept in memory
+     */
+    public PayloadStore(long maxBytes) {
+        this(maxBytes, null, null);
+    }
+
+    /**
+     * Constructs a new store spilling to the given memory-mapped file on the default executor.
+     *
+     * @param maxBytes   The maximum estimated bytes of the payloads kept in memory
+     * @param file       The spill file
+     * @param spillBytes The maximum size of the spill file, the oldest payloads are dropped when full
+     * @throws IOException If failed to map the file
+     */
+    public PayloadStore(long maxBytes, File file, int spillBytes) throws IOException {
+        this(maxBytes, file, spillBytes, getDefaultExecutor());
+    }
+
+    /**
+     * Constructs a new store spilling to the given memory-mapped file. The executor should run the
+     * tasks in order on a background thread.
+     *
+     * @param maxBytes   The maximum estimated bytes of the payloads kept in memory
+     * @param file       The spill file
+     * @param spillBytes The maximum size of the spill file, the oldest payloads are dropped when full
+     * @param executor   The executor to write the spill file
+     * @throws IOException If failed to map the file
+     */
+    public PayloadStore(long maxBytes, File file, int spillBytes, Executor executor) throws IOException {
+        this(maxBytes, new PayloadSpill(file, spillBytes), requireNonNull(executor, "The executor must not be null."));
+    }
+
+    /**
+     * Constructs a new store.
+     *
+     * @param maxBytes The maximum estimated bytes of the payloads kept in memory
+     * @param spill    The spill, or <code>null</code> if not spilled
+     * @param executor The executor to write the spill file, or <code>null</code> if not spilled
+     */
+    private PayloadStore(long maxBytes, PayloadSpill spill, Executor executor) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("The maximum bytes must be positive.");
+        }
+        this.maxBytes = maxBytes;
+        this.spill    = spill;
+        this.executor = executor;
+        this.prefix   = (long) (new Random().nextInt() | 1) << 32;
+        this.entries  = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Stores a payload, the bytes of the payload are estimated by {@link #sizeOf(Object)}.
+     *
+     * @param payload The payload
+     * @return The token to resolve the payload, or {@link #NO_TOKEN} if the payload is
+     * <code>null</code>
+     */
+    public long put(Object payload) {
+        if (payload == null) {
+            return NO_TOKEN;
+        }
+        return put(payload, sizeOf(payload));
+    }
+
+    /**
+     * Stores a payload of the given size, the least recently used payloads are evicted if more
+     * than the maximum bytes are kept. The payload itself is kept even if larger than the maximum.
+     *
+     * @param payload The payload
+     * @param size    The estimated bytes of the payload
+     * @return The token to resolve the payload, or {@link #NO_TOKEN} if the payload is
+     * <code>null</code>
+     */
+    public synchronized long put(Object payload, long size) {
+        if (payload == null) {
+            return NO_TOKEN;
+        }
+        if (size < 0) {
+            throw new IllegalArgumentException("The size must not be negative.");
+        }
+        long token = prefix | (++sequence & 0xFFFFFFFFL);
+        keep(token, payload, size);
+        return token;
+    }
+
+    /**
+     * Resolves the payload of the token, the payload is kept for the other resolutions, e.g. after
+     * the activity is recreated.
+     *
+     * @param token The token
+     * @param <T>   The type of the payload
+     * @return The payload, or <code>null</code> if not found or evicted
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> T get(long token) {
+        if (token == NO_TOKEN) {
+            return null;
+        }
+        Entry entry = entries.get(token);
+        if (entry != null) {
+            return (T) entry.payload;
+        }
+        Object payload = spilling.get(token);
+        if (payload == null && spill != null) {
+            payload = spill.read(token);
+            if (payload != null) {
+                keep(token, payload, sizeOf(payload));
+            }
+        }
+        return (T) payload;
+    }
+
+    /**
+     * Test if the payload of the token can be resolved, from memory or from the spill file.
+     *
+     * @param token The token
+     * @return <code>true</code> if resolvable, otherwise <code>false</code>.
+     */
+    public synchronized boolean contains(long token) {
+        if (token == NO_TOKEN) {
+            return false;
+        }
+        return entries.containsKey(token) || spilling.containsKey(token)
+                || spill != null && spill.contains(token);
+    }
+
+    /**
+     * Removes the payload of the token from memory, the spilled payload is dropped when the spill
+     * file is full.
+     *
+     * @param token The token
+     */
+    public synchronized void remove(long token) {
+        Entry entry = entries.remove(token);
+        if (entry != null) {
+            bytes -= entry.size;
+        }
+        spilling.remove(token);
+    }
+
+    /**
+     * Spills the serializable payloads in memory to the spill file on the background thread, e.g.
+     * when the app goes to the background, so they survive the process death.
+     */
+    public synchronized void spill() {
+        if (spill == null) {
+            return;
+        }
+        final List<Map.Entry<Long, Object>> payloads = new ArrayList<>(entries.size());
+        for (Map.Entry<Long, Entry> entry : entries.entrySet()) {
+            if (entry.getValue().payload instanceof Serializable) {
+                payloads.add(new AbstractMap.SimpleEntry<>(entry.getKey(), entry.getValue().payload));
+            }
+        }
+        if (payloads.isEmpty()) {
+            return;
+        }
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    for (Map.Entry<Long, Object> payload : payloads) {
+                        spill.write(payload.getKey(), (Serializable) payload.getValue());
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // the payloads are still kept in memory
+        }
+    }
+
+    /**
+     * Returns the estimated bytes of a payload, the sizes of the arrays, the strings and the byte
+     * buffers are estimated by their lengths, the others are estimated as 1 KB. Override to
+     * estimate the own types of payloads.
+     *
+     * @param payload The payload
+     * @return The estimated bytes
+     */
+    protected long sizeOf(Object payload) {
+        if (payload instanceof CharSequence) {
+            return 2L * ((CharSequence) payload).length();
+        }
+        if (payload instanceof ByteBuffer) {
+            return ((ByteBuffer) payload).capacity();
+        }
+        Class<?> component = payload.getClass().getComponentType();
+        if (component == null) {
+            return UNKNOWN_SIZE;
+        }
+        long length = Array.getLength(payload);
+        if (component == byte.class || component == boolean.class) {
+            return length;
+        }
+        if (component == char.class || component == short.class) {
+            return 2 * length;
+        }
+        if (component == int.class || component == float.class) {
+            return 4 * length;
+        }
+        if (component == long.class || component == double.class) {
+            return 8 * length;
+        }
+        return REFERENCE_SIZE * length;
+    }
+
+    /**
+     * Keeps a payload in memory and evicts the least recently used payloads if more than the
+     * maximum bytes are kept.
+     *
+     * @param token   The token
+     * @param payload The payload
+     * @param size    The estimated bytes of the payload
+     */
+    private void keep(long token, Object payload, long size) {
+        Entry replaced = entries.put(token, new Entry(payload, size));
+        if (replaced != null) {
+            bytes -= replaced.size;
+        }
+        bytes += size;
+        Iterator<Map.Entry<Long, Entry>> iterator = entries.entrySet().iterator();
+        while (bytes > maxBytes && entries.size() > 1) {
+            Map.Entry<Long, Entry> eldest = iterator.next();
+            iterator.remove();
+            bytes -= eldest.getValue().size;
+            evict(eldest.getKey(), eldest.getValue().payload);
+        }
+    }
+
+    /**
+     * Writes an evicted payload to the spill file on the background thread if serializable, the
+     * payload is resolved from memory until written.
+     *
+     * @param token   The token
+     * @param payload The payload
+     */
+    private void evict(final long token, final Object payload) {
+        if (spill == null || !(payload instanceof Serializable) || spill.contains(token)) {
+            return;
+        }
+        spilling.put(token, payload);
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        spill.write(token, (Serializable) payload);
+                    } finally {
+                        written(token, payload);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            spilling.remove(token);
+        }
+    }
+
+    /**
+     * Forgets the evicted payload written to the spill file.
+     *
+     * @param token   The token
+     * @param payload The payload written
+     */
+    private synchronized void written(long token, Object payload) {
+        if (spilling.get(token) == payload) {
+            spilling.remove(token);
+        }
+    }
+
+    /**
+     * Returns the default executor to spill the payloads, a single background thread created when
+     * needed.
+     *
+     * @return The default executor
+     */
+    private static Executor getDefaultExecutor() {
+        Executor executor = defaultExecutor;
+        if (executor == null) {
+            synchronized (PayloadStore.class) {
+                executor = defaultExecutor;
+                if (executor == null) {
+                    ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                                @Override
+                                public Thread newThread(Runnable runnable) {
+                                    Thread thread = new Thread(runnable, "Doorbell spill");
+                                    thread.setDaemon(true);
+                                    return thread;
+                                }
+                            });
+                    pool.allowCoreThreadTimeOut(true);
+                    executor = defaultExecutor = pool;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * The class represents a payload kept in memory.
+     */
+    private static final class Entry {
+
+        /**
+         * The payload
+         */
+        final Object payload;
+
+        /**
+         * The estimated bytes of the payload
+         */
+        final long size;
+
+        /**
+         * Constructs a new entry.
+         *
+         * @param payload The payload
+         * @param size    The estimated bytes of the payload
+         */
+        Entry(Object payload, long size) {
+            this.payload = payload;
+            this.size    = size;
+        }
+    }
+}
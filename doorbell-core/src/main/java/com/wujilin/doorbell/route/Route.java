@@ -0,0 +1,88 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.route;
+
+import com.wujilin.doorbell.Door;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The annotation to declare the route of an activity. <br /><br />
+ *
+ * The routes are collected by the doorbell compiler into a generated {@link RouteTable} at build
+ * time, then the activity can be started by the route without referencing the activity class.
+ *
+ * <pre>
+ * &#64;Route(value = "user/profile", doors = LoginDoor.class)
+ * public class ProfileActivity extends Activity {
+ * }
+ *
+ * Doorbell.with(this).route("user/profile").ring();
+ * </pre>
+ *
+ * @see Routes
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface Route {
+
+    /**
+     * The value represents the transition is not set
+     */
+    int TRANSITION_NOT_SET = -1;
+
+    /**
+     * Returns the name of the route, which must be unique in the module.
+     *
+     * @return The name of the route
+     */
+    String value();
+
+    /**
+     * Returns the doors required to start the activity, the doors must have a public constructor
+     * without parameters.
+     *
+     * @return The required doors
+     */
+    Class<? extends Door>[] doors() default {};
+
+    /**
+     * Returns the default animation resource to use for the incoming activity.
+     *
+     * @return The animation resource
+     */
+    int enter() default TRANSITION_NOT_SET;
+
+    /**
+     * Returns the default animation resource to use for the outgoing activity.
+     *
+     * @return The animation resource
+     */
+    int exit() default TRANSITION_NOT_SET;
+}
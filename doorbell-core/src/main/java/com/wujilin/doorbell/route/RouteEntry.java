@@ -0,0 +1,105 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.route;
+
+import com.wujilin.doorbell.Door;
+
+import static com.wujilin.doorbell.util.Objects.requireNonNull;
+
+/**
+ * The class represents a route found in a {@link RouteTable}.
+ */
+public final class RouteEntry {
+
+    /**
+     * The class name of the activity
+     */
+    private final String className;
+
+    /**
+     * The doors required to start the activity
+     */
+    private final Door[] doors;
+
+    /**
+     * The default animation resource to use for the incoming activity
+     */
+    private final int enter;
+
+    /**
+     * The default animation resource to use for the outgoing activity
+     */
+    private final int exit;
+
+    /**
+     * Constructs a new route entry.
+     *
+     * @param className The class name of the activity
+     * @param doors     The doors required to start the activity
+     * @param enter     The default animation resource to use for the incoming activity
+     * @param exit      The default animation resource to use for the outgoing activity
+     */
+    public RouteEntry(String className, Door[] doors, int enter, int exit) {
+        this.className = requireNonNull(className, "The class name must not be null.");
+        this.doors     = requireNonNull(doors, "The doors must not be null.");
+        this.enter     = enter;
+        this.exit      = exit;
+    }
+
+    /**
+     * Returns the class name of the activity.
+     *
+     * @return The class name
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * Returns the doors required to start the activity.
+     *
+     * @return A copy of the required doors
+     */
+    public Door[] getDoors() {
+        return doors.clone();
+    }
+
+    /**
+     * Returns the default animation resource to use for the incoming activity.
+     *
+     * @return The animation resource, or {@link Route#TRANSITION_NOT_SET} if not set
+     */
+    public int getEnter() {
+        return enter;
+    }
+
+    /**
+     * Returns the default animation resource to use for the outgoing activity.
+     *
+     * @return The animation resource, or {@link Route#TRANSITION_NOT_SET} if not set
+     */
+    public int getExit() {
+        return exit;
+    }
+}
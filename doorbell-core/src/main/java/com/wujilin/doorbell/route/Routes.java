@@ -0,0 +1,81 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.route;
+
+import java.util.Arrays;
+
+import static com.wujilin.doorbell.util.Objects.requireNonNull;
+
+/**
+ * The class holds the route tables registered by the modules. <br /><br />
+ *
+ * Registering a table only keeps a reference of it, the classpath is never scanned and the
+ * routes are found by the switch generated into the table when started.
+ *
+ * <pre>
+ * Routes.register(new AppRouteTable());
+ * </pre>
+ */
+public final class Routes {
+
+    /**
+     * The registered tables, copied on registration
+     */
+    private static volatile RouteTable[] tables = new RouteTable[0];
+
+    /**
+     * Preventing from constructing.
+     */
+    private Routes() {
+    }
+
+    /**
+     * Registers a route table.
+     *
+     * @param table The route table
+     */
+    public static synchronized void register(RouteTable table) {
+        requireNonNull(table, "The route table must not be null.");
+        RouteTable[] registered = Arrays.copyOf(tables, tables.length + 1);
+        registered[tables.length] = table;
+        tables = registered;
+    }
+
+    /**
+     * Finds the route by the name in the registered tables in the registration order.
+     *
+     * @param name The name of the route
+     * @return The route, or <code>null</code> if not found
+     */
+    public static RouteEntry find(String name) {
+        requireNonNull(name, "The route name must not be null.");
+        for (RouteTable table : tables) {
+            RouteEntry entry = table.find(name);
+            if (entry != null) {
+                return entry;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.route;
+
+/**
+ * The class represents the result of matching a path by the {@link UriRouter}, that is the route
+ * and the parameters extracted from the path. <br /><br />
+ *
+ * The numeric and boolean parameters are kept as raw bits without boxing.
+ */
+public final class UriMatch {
+
+    /**
+     * The types of the parameters
+     */
+    public static final int TYPE_STRING  = 0;
+    public static final int TYPE_INT     = 1;
+    public static final int TYPE_LONG    = 2;
+    public static final int TYPE_DOUBLE  = 3;
+    public static final int TYPE_BOOLEAN = 4;
+
+    /**
+     * The route matched
+     */
+    private final RouteEntry route;
+
+    /**
+     * The names of the parameters
+     */
+    private final String[] names;
+
+    /**
+     * The types of the parameters
+     */
+    private final int[] types;
+
+    /**
+     * The raw bits of the numeric and boolean parameters
+     */
+    private final long[] bits;
+
+    /**
+     * The values of the string parameters
+     */
+    private final String[] strings;
+
+    /**
+     * Constructs a new match.
+     *
+     * @param route   The route matched
+     * @param names   The names of the parameters
+     * @param types   The types of the parameters
+     * @param bits    The raw bits of the numeric and boolean parameters
+     * @param strings The values of the string parameters
+     */
+    UriMatch(RouteEntry route, String[] names, int[] types, long[] bits, String[] strings) {
+        this.route   = route;
+        this.names   = names;
+        this.types   = types;
+        this.bits    = bits;
+        this.strings = strings;
+    }
+
+    /**
+     * Returns the route matched.
+     *
+     * @return The route
+     */
+    public RouteEntry getRoute() {
+        return route;
+    }
+
+    /**
+     * Returns the number of the parameters.
+     *
+     * @return The number of the parameters
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Returns the name of the parameter at the given index.
+     *
+     * @param index The index of the parameter
+     * @return The name
+     */
+    public String getName(int index) {
+        return names[index];
+    }
+
+    /**
+     * Returns the type of the parameter at the given index.
+     *
+     * @param index The index of the parameter
+     * @return One of the <code>TYPE_*</code> constants
+     */
+    public int getType(int index) {
+        return types[index];
+    }
+
+    /**
+     * Returns the string parameter at the given index.
+     *
+     * @param index The index of the parameter
+     * @return The value
+     */
+    public String getString(int index) {
+        return strings[index];
+    }
+
+    /**
+     * Returns the int or long parameter at the given index.
+     *
+     * @param index The index of the parameter
+     * @return The value
+     */
+    public long getLong(int index) {
+        return bits[index];
+    }
+
+    /**
+     * Returns the double parameter at the given index.
+     *
+     * @param index The index of the parameter
+     * @return The value
+     */
+    public double getDouble(int index) {
+        return Double.longBitsToDouble(bits[index]);
+    }
+
+    /**
+     * Returns the boolean parameter at the given index.
+     *
+     * @param index The index of the parameter
+     * @return The value
+     */
+    public boolean getBoolean(int index) {
+        return bits[index] != 0;
+    }
+}
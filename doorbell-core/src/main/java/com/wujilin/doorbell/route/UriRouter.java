@@ -0,0 +1,531 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.route;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.wujilin.doorbell.route.UriMatch.TYPE_BOOLEAN;
+import static com.wujilin.doorbell.route.UriMatch.TYPE_DOUBLE;
+import static com.wujilin.doorbell.route.UriMatch.TYPE_INT;
+import static com.wujilin.doorbell.route.UriMatch.TYPE_LONG;
+import static com.wujilin.doorbell.route.UriMatch.TYPE_STRING;
+import static com.wujilin.doorbell.util.Objects.requireNonNull;
+
+/**
+ * The class routes the paths of the deep links to the routes. <br /><br />
+ *
+ * The patterns are compiled into a trie of the path segments, a segment of a pattern is one of:
+ * <ul>
+ * <li>a literal, e.g. <code>user</code></li>
+ * <li>a parameter, e.g. <code>{name}</code>, or a typed parameter, e.g. <code>{id:int}</code>, the
+ * types are <code>int</code>, <code>long</code>, <code>double</code>, <code>boolean</code> and
+ * <code>string</code></li>
+ * <li>a wildcard <code>*</code> matching any one segment</li>
+ * <li>a wildcard <code>**</code> matching the rest segments, zero or more, which must be the last
+ * one</li>
+ * </ul>
+ *
+ * A path is matched segment by segment along the trie, each segment commits to one branch by the
+ * precedence: the literal, then the typed parameters the segment parses as, in the order of
+ * <code>int</code>, <code>long</code>, <code>double</code> and <code>boolean</code>, then the string
+ * parameter, then the wildcard <code>*</code>. The other branches are never tried, so a path is
+ * matched in time proportional to its length. If the committed branch ends without a pattern, the
+ * deepest wildcard <code>**</code> passed matches the rest segments. The <code>double</code>
+ * parameters accept the plain decimals only, e.g. <code>-1.5</code>, not <code>NaN</code>,
+ * <code>Infinity</code> or the exponents.
+ *
+ * <pre>
+ * UriRouter router = new UriRouter()
+ *     .register("example.com/user/{id:long}", "user/profile")
+ *     .register("example.com/search/**", "search");
+ *
+ * UriMatch match = router.match("example.com/user/42");
+ * </pre>
+ *
+ * The router must be set up before matching, e.g. in <code>Application.onCreate()</code>, and
+ * then it can be shared between threads.
+ */
+public final class UriRouter {
+
+    /**
+     * The root of the trie
+     */
+    private final Node root = new Node();
+
+    /**
+     * Registers the pattern of the route declared by {@link Route}.
+     *
+     * @param pattern   The pattern of the paths
+     * @param routeName The name of the route
+     * @return this
+     * @throws IllegalArgumentException If the route is not found or the pattern is invalid
+     */
+    public UriRouter register(String pattern, String routeName) {
+        RouteEntry route = Routes.find(routeName);
+        if (route == null) {
+            throw new IllegalArgumentException("The route " + routeName + " is not found.");
+        }
+        return register(pattern, route);
+    }
+
+    /**
+     * Registers the pattern of the route.
+     *
+     * @param pattern The pattern of the paths
+     * @param route   The route
+     * @return this
+     * @throws IllegalArgumentException If the pattern is invalid or registered already
+     */
+    public UriRouter register(String pattern, RouteEntry route) {
+        requireNonNull(pattern, "The pattern must not be null.");
+        requireNonNull(route, "The route must not be null.");
+        String[] segments = split(pattern);
+        List<String> names = new ArrayList<String>();
+        Node node = root;
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if ("**".equals(segment)) {
+                if (i != segments.length - 1) {
+                    throw new IllegalArgumentException("The ** must be the last segment of " + pattern + ".");
+                }
+                if (node.rest != null) {
+                    throw new IllegalArgumentException("The pattern " + pattern + " is registered already.");
+                }
+                node.rest = new Target(route, toArray(names));
+                return this;
+            }
+            if ("*".equals(segment)) {
+                if (node.wildcard == null) {
+                    node.wildcard = new Node();
+                }
+                node = node.wildcard;
+            } else if (segment.startsWith("{") && segment.endsWith("}")) {
+                String name = segment.substring(1, segment.length() - 1);
+                int type    = TYPE_STRING;
+                int colon   = name.indexOf(':');
+                if (colon >= 0) {
+                    type = parseType(name.substring(colon + 1), pattern);
+                    name = name.substring(0, colon);
+                }
+                if (name.isEmpty()) {
+                    throw new IllegalArgumentException("The parameter of " + pattern + " must be named.");
+                }
+                names.add(name);
+                node = node.param(type);
+            } else {
+                node = node.literal(segment);
+            }
+        }
+        if (node.target != null) {
+            throw new IllegalArgumentException("The pattern " + pattern + " is registered already.");
+        }
+        node.target = new Target(route, toArray(names));
+        return this;
+    }
+
+    /**
+     * Matches the path, the empty segments are ignored.
+     *
+     * @param path The path to match, such as the host and the path of a uri
+     * @return The match, or <code>null</code> if no route matched
+     */
+    public UriMatch match(String path) {
+        requireNonNull(path, "The path must not be null.");
+        return match(split(path));
+    }
+
+    /**
+     * Matches the decoded path segments.
+     *
+     * @param segments The segments to match
+     * @return The match, or <code>null</code> if no route matched
+     */
+    public UriMatch match(List<String> segments) {
+        requireNonNull(segments, "The segments must not be null.");
+        return match(segments.toArray(new String[segments.size()]));
+    }
+
+    /**
+     * Matches the segments.
+     *
+     * @param segments The segments to match
+     * @return The match, or <code>null</code> if no route matched
+     */
+    private UriMatch match(String[] segments) {
+        Matcher matcher = new Matcher(segments);
+        return matcher.match(root) ? matcher.toMatch() : null;
+    }
+
+    /**
+     * Splits the path into the segments, the empty segments are ignored.
+     *
+     * @param path The path
+     * @return The segments
+     */
+    private static String[] split(String path) {
+        List<String> segments = new ArrayList<String>();
+        int start = 0;
+        for (int i = 0; i <= path.length(); i++) {
+            if (i == path.length() || path.charAt(i) == '/') {
+                if (i > start) {
+                    segments.add(path.substring(start, i));
+                }
+                start = i + 1;
+            }
+        }
+        return segments.toArray(new String[segments.size()]);
+    }
+
+    /**
+     * Parses the type of a parameter.
+     *
+     * @param type    The name of the type
+     * @param pattern The pattern
+     * @return The type
+     */
+    private static int parseType(String type, String pattern) {
+        if ("int".equals(type)) {
+            return TYPE_INT;
+        }
+        if ("long".equals(type)) {
+            return TYPE_LONG;
+        }
+        if ("double".equals(type)) {
+            return TYPE_DOUBLE;
+        }
+        if ("boolean".equals(type)) {
+            return TYPE_BOOLEAN;
+        }
+        if ("string".equals(type)) {
+            return TYPE_STRING;
+        }
+        throw new IllegalArgumentException("Unknown type " + type + " of " + pattern + ".");
+    }
+
+    /**
+     * Converts the names into an array.
+     *
+     * @param names The names
+     * @return The array of the names
+     */
+    private static String[] toArray(List<String> names) {
+        return names.toArray(new String[names.size()]);
+    }
+
+    /**
+     * The class represents the route and the names of the parameters of a pattern.
+     */
+    private static final class Target {
+
+        /**
+         * The route
+         */
+        final RouteEntry route;
+
+        /**
+         * The names of the parameters in order
+         */
+        final String[] names;
+
+        /**
+         * Constructs a new target.
+         *
+         * @param route The route
+         * @param names The names of the parameters in order
+         */
+        Target(RouteEntry route, String[] names) {
+            this.route = route;
+            this.names = names;
+        }
+    }
+
+    /**
+     * The class represents a node of the trie.
+     */
+    private static final class Node {
+
+        /**
+         * The children of the literal segments, created when needed
+         */
+        Map<String, Node> literals;
+
+        /**
+         * The children of the parameters by the types, the string parameters last
+         */
+        Node[] params = new Node[TYPE_BOOLEAN + 1];
+
+        /**
+         * The child of the wildcard <code>*</code>
+         */
+        Node wildcard;
+
+        /**
+         * The target of the patterns ended here
+         */
+        Target target;
+
+        /**
+         * The target of the patterns ended with the wildcard <code>**</code> here
+         */
+        Target rest;
+
+        /**
+         * Returns the child of the literal segment, creates it if not exists.
+         *
+         * @param segment The literal segment
+         * @return The child
+         */
+        Node literal(String segment) {
+            if (literals == null) {
+                literals = new HashMap<String, Node>();
+            }
+            Node child = literals.get(segment);
+            if (child == null) {
+                child = new Node();
+                literals.put(segment, child);
+            }
+            return child;
+        }
+
+        /**
+         * Returns the child of the parameter type, creates it if not exists.
+         *
+         * @param type The type of the parameter
+         * @return The child
+         */
+        Node param(int type) {
+            Node child = params[type];
+            if (child == null) {
+                child = params[type] = new Node();
+            }
+            return child;
+        }
+    }
+
+    /**
+     * The class matches the segments of a path along the trie, created for each matching.
+     */
+    private static final class Matcher {
+
+        /**
+         * The order to try the parameters, the string parameters last
+         */
+        private static final int[] PARAM_ORDER = { TYPE_INT, TYPE_LONG, TYPE_DOUBLE, TYPE_BOOLEAN, TYPE_STRING };
+
+        /**
+         * The segments to match
+         */
+        private final String[] segments;
+
+        /**
+         * The types of the parameters extracted
+         */
+        private final int[] types;
+
+        /**
+         * The raw bits of the parameters extracted
+         */
+        private final long[] bits;
+
+        /**
+         * The strings of the parameters extracted
+         */
+        private final String[] strings;
+
+        /**
+         * The target matched
+         */
+        private Target target;
+
+        /**
+         * The number of the parameters extracted
+         */
+        private int count;
+
+        /**
+         * Constructs a new matcher.
+         *
+         * @param segments The segments to match
+         */
+        Matcher(String[] segments) {
+            this.segments = segments;
+            this.types    = new int[segments.length];
+            this.bits     = new long[segments.length];
+            this.strings  = new String[segments.length];
+        }
+
+        /**
+         * Matches the segments from the root, each segment commits to one branch.
+         *
+         * @param root The root of the trie
+         * @return <code>true</code> if matched, otherwise <code>false</code>.
+         */
+        boolean match(Node root) {
+            Node node      = root;
+            int params     = 0;
+            Target rest    = null;
+            int restParams = 0;
+            for (String segment : segments) {
+                if (node.rest != null) {
+                    rest       = node.rest;
+                    restParams = params;
+                }
+                Node child = node.literals == null ? null : node.literals.get(segment);
+                if (child == null) {
+                    for (int type : PARAM_ORDER) {
+                        Node param = node.params[type];
+                        if (param != null && extract(type, segment, params)) {
+                            child = param;
+                            params++;
+                            break;
+                        }
+                    }
+                }
+                if (child == null) {
+                    child = node.wildcard;
+                }
+                if (child == null) {
+                    return rest != null && found(rest, restParams);
+                }
+                node = child;
+            }
+            if (node.target != null) {
+                return found(node.target, params);
+            }
+            if (node.rest != null) {
+                return found(node.rest, params);
+            }
+            return rest != null && found(rest, restParams);
+        }
+
+        /**
+         * Records the target found.
+         *
+         * @param target The target
+         * @param params The number of the parameters extracted
+         * @return <code>true</code>
+         */
+        private boolean found(Target target, int params) {
+            this.target = target;
+            this.count  = params;
+            return true;
+        }
+
+        /**
+         * Extracts the parameter from the segment.
+         *
+         * @param type    The type of the parameter
+         * @param segment The segment
+         * @param index   The index of the parameter
+         * @return <code>true</code> if the segment is of the type, otherwise <code>false</code>.
+         */
+        private boolean extract(int type, String segment, int index) {
+            types[index]   = type;
+            strings[index] = null;
+            try {
+                switch (type) {
+                    case TYPE_INT:
+                        bits[index] = Integer.parseInt(segment);
+                        return true;
+                    case TYPE_LONG:
+                        bits[index] = Long.parseLong(segment);
+                        return true;
+                    case TYPE_DOUBLE:
+                        if (!isDecimal(segment)) {
+                            return false;
+                        }
+                        bits[index] = Double.doubleToRawLongBits(Double.parseDouble(segment));
+                        return true;
+                    case TYPE_BOOLEAN:
+                        if ("true".equals(segment) || "false".equals(segment)) {
+                            bits[index] = "true".equals(segment) ? 1 : 0;
+                            return true;
+                        }
+                        return false;
+                    default:
+                        strings[index] = segment;
+                        return true;
+                }
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Test if the segment is a plain decimal, that is an optional minus sign, the digits and an
+         * optional fraction of the digits.
+         *
+         * @param segment The segment
+         * @return <code>true</code> if a plain decimal, otherwise <code>false</code>.
+         */
+        private static boolean isDecimal(String segment) {
+            int length = segment.length();
+            int i      = length > 0 && segment.charAt(0) == '-' ? 1 : 0;
+            int digits = 0;
+            while (i < length && isDigit(segment.charAt(i))) {
+                i++;
+                digits++;
+            }
+            if (digits == 0) {
+                return false;
+            }
+            if (i < length && segment.charAt(i) == '.') {
+                i++;
+                digits = 0;
+                while (i < length && isDigit(segment.charAt(i))) {
+                    i++;
+                    digits++;
+                }
+                if (digits == 0) {
+                    return false;
+                }
+            }
+            return i == length;
+        }
+
+        /**
+         * Test if the character is an ASCII digit.
+         *
+         * @param c The character
+         * @return <code>true</code> if a digit, otherwise <code>false</code>.
+         */
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+
+        /**
+         * Returns the match of the target found.
+         *
+         * @return The match
+         */
+        UriMatch toMatch() {
+            return new UriMatch(target.route, target.names, Arrays.copyOf(types, count),
+                    Arrays.copyOf(bits, count), Arrays.copyOf(strings, count));
+        }
+    }
+}
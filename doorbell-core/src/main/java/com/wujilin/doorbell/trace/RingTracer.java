@@ -0,0 +1,54 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.trace;
+
+/**
+ * The interface to trace the phases of the ringing, installed by
+ * {@link com.wujilin.doorbell.AbstractDoorbell#setTracer(RingTracer)}. <br /><br />
+ *
+ * The begin and end of a phase are called on the same thread, and the phases on a thread are
+ * nested, such as the phase starting the activities within the phase calling the onAllow
+ * callbacks. The methods must be cheap and thread-safe. Nothing is traced if no tracer installed.
+ *
+ * @see TraceBuffer
+ * @see com.wujilin.doorbell.metrics.RingMetrics
+ */
+public interface RingTracer {
+
+    /**
+     * Called when a phase of the ringing begins.
+     *
+     * @param door  The involved door, or the condition if no door involved
+     * @param phase The phase of the ringing, one of the <code>RingMetrics.PHASE_*</code> constants
+     */
+    void begin(Object door, int phase);
+
+    /**
+     * Called when a phase of the ringing ends.
+     *
+     * @param door  The involved door, or the condition if no door involved
+     * @param phase The phase of the ringing, one of the <code>RingMetrics.PHASE_*</code> constants
+     */
+    void end(Object door, int phase);
+}
@@ -0,0 +1,230 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.trace;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.wujilin.doorbell.metrics.RingMetrics.PHASE_ALLOW;
+import static com.wujilin.doorbell.metrics.RingMetrics.PHASE_BLOCK;
+import static com.wujilin.doorbell.metrics.RingMetrics.PHASE_COMPLETE;
+import static com.wujilin.doorbell.metrics.RingMetrics.PHASE_START;
+import static com.wujilin.doorbell.metrics.RingMetrics.PHASE_TEST;
+import static com.wujilin.doorbell.metrics.RingMetrics.PHASE_TRANSITION;
+
+/**
+ * The tracer records the begin and end events of the phases into a fixed-size ring buffer, the
+ * oldest events are overwritten when full. <br /><br />
+ *
+ * The events are claimed by an atomic cursor and published by a sequence per slot, so recording
+ * never locks or allocates. The fields of the events are kept in the atomic arrays, the writer
+ * marks the slot being written before storing the fields and publishes the sequence after, the
+ * reader loads the fields between two loads of the sequence, so a torn event is always detected. The events can be exported in the Chrome trace format and opened by
+ * <code>chrome://tracing</code> or Perfetto.
+ *
+ * <pre>
+ * TraceBuffer trace = new TraceBuffer(4096);
+ * Doorbell.setTracer(trace);
+ * ...
+ * trace.writeChromeTrace(writer);
+ * </pre>
+ */
+public class TraceBuffer implements RingTracer {
+
+    /**
+     * The names of the phases
+     */
+    private static final String[] PHASE_NAMES = new String[PHASE_TRANSITION + 1];
+
+    static {
+        PHASE_NAMES[PHASE_TEST]       = "test";
+        PHASE_NAMES[PHASE_ALLOW]      = "allow";
+        PHASE_NAMES[PHASE_BLOCK]      = "block";
+        PHASE_NAMES[PHASE_COMPLETE]   = "complete";
+        PHASE_NAMES[PHASE_START]      = "start";
+        PHASE_NAMES[PHASE_TRANSITION] = "transition";
+    }
+
+    /**
+     * The origin of the timestamps
+     */
+    private final long origin = System.nanoTime();
+
+    /**
+     * The mask of the indexes of the slots
+     */
+    private final int mask;
+
+    /**
+     * The cursor of the next event
+     */
+    private final AtomicLong cursor = new AtomicLong();
+
+    /**
+     * The sequences of the events published in the slots, negative if being written
+     */
+    private final AtomicLongArray sequences;
+
+    /**
+     * The timestamps in nanoseconds of the events since the origin
+     */
+    private final AtomicLongArray timestamps;
+
+    /**
+     * The ids of the threads of the events
+     */
+    private final AtomicLongArray threads;
+
+    /**
+     * The phases of the events shifted left by one, the lowest bit is set for the begin events
+     */
+    private final AtomicIntegerArray phases;
+
+    /**
+     * The classes of the doors of the events, so the doors are never retained
+     */
+    private final AtomicReferenceArray<Class<?>> doors;
+
+    /**
+     * Constructs a new trace buffer.
+     *
+     * @param capacity The maximum number of the events, rounded up to a power of two
+     */
+    public TraceBuffer(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("The capacity must be positive and at most 2^30.");
+        }
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.mask       = size - 1;
+        this.sequences  = new AtomicLongArray(size);
+        this.timestamps = new AtomicLongArray(size);
+        this.threads    = new AtomicLongArray(size);
+        this.phases     = new AtomicIntegerArray(size);
+        this.doors      = new AtomicReferenceArray<>(size);
+    }
+
+    @Override
+    public void begin(Object door, int phase) {
+        record(door, phase, true);
+    }
+
+    @Override
+    public void end(Object door, int phase) {
+        record(door, phase, false);
+    }
+
+    /**
+     * Records an event.
+     *
+     * @param door  The door
+     * @param phase The phase
+     * @param begin Whether the event is the begin event
+     */
+    private void record(Object door, int phase, boolean begin) {
+        long timestamp = System.nanoTime() - origin;
+        long sequence  = cursor.getAndIncrement() + 1;
+        int index      = (int) (sequence - 1) & mask;
+        // the volatile mark is ordered before the ordered stores of the fields
+        sequences.set(index, -sequence);
+        timestamps.lazySet(index, timestamp);
+        threads.lazySet(index, Thread.currentThread().getId());
+        phases.lazySet(index, phase << 1 | (begin ? 1 : 0));
+        doors.lazySet(index, door == null ? null : door.getClass());
+        sequences.lazySet(index, sequence);
+    }
+
+    /**
+     * Returns the number of the events recorded, including the ones overwritten.
+     *
+     * @return The number of the events
+     */
+    public long getCount() {
+        return cursor.get();
+    }
+
+    /**
+     * Writes the events kept in the buffer in the Chrome trace format, the events being written
+     * or overwritten during writing are skipped.
+     *
+     * @param out The output
+     * @throws IOException If failed to write
+     */
+    public void writeChromeTrace(Appendable out) throws IOException {
+        long last  = cursor.get();
+        long first = Math.max(0, last - (mask + 1));
+        out.append("{\"traceEvents\":[");
+        boolean empty = true;
+        for (long sequence = first + 1; sequence <= last; sequence++) {
+            int index = (int) (sequence - 1) & mask;
+            if (sequences.get(index) != sequence) {
+                continue;
+            }
+            // the volatile loads of the fields are never reordered past the second check
+            long timestamp = timestamps.get(index);
+            long thread    = threads.get(index);
+            int bits       = phases.get(index);
+            Class<?> door  = doors.get(index);
+            if (sequences.get(index) != sequence) {
+                continue;
+            }
+            int phase     = bits >> 1;
+            boolean begin = (bits & 1) != 0;
+            out.append(empty ? "\n" : ",\n");
+            empty = false;
+            out.append("{\"name\":\"").append(getPhaseName(phase))
+                    .append("\",\"cat\":\"doorbell\",\"ph\":\"").append(begin ? 'B' : 'E')
+                    .append("\",\"ts\":").append(String.valueOf(timestamp / 1000)).append('.');
+            String fraction = String.valueOf(timestamp % 1000);
+            for (int i = fraction.length(); i < 3; i++) {
+                out.append('0');
+            }
+            out.append(fraction)
+                    .append(",\"pid\":0,\"tid\":").append(String.valueOf(thread));
+            if (begin && door != null) {
+                out.append(",\"args\":{\"door\":\"").append(door.getName()).append("\"}");
+            }
+            out.append('}');
+        }
+        out.append("\n]}\n");
+    }
+
+    /**
+     * Returns the name of the phase.
+     *
+     * @param phase The phase, one of the <code>RingMetrics.PHASE_*</code> constants
+     * @return The name of the phase
+     */
+    public static String getPhaseName(int phase) {
+        if (phase < 0 || phase >= PHASE_NAMES.length) {
+            return "phase" + phase;
+        }
+        return PHASE_NAMES[phase];
+    }
+}
@@ -0,0 +1,112 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.util;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.wujilin.doorbell.util.Objects.requireNonNull;
+
+/**
+ * The executor hands the tasks off to the target executor in batches, one task of the target
+ * executor per burst of submissions, such as one message of the main looper. <br /><br />
+ *
+ * A batch is posted when a task is submitted while no batch is pending, and it runs the tasks until
+ * the queue is empty, including the ones submitted while it runs, so no more batches are posted for
+ * them. The batches are not aligned to the frames. The tasks can be submitted from any thread, and
+ * each task is run exactly once in the submission order of each thread. A task throwing an
+ * exception does not drop the rest tasks, they are run by the next batch.
+ */
+public final class BatchingExecutor implements Executor {
+
+    /**
+     * The executor to run the batches
+     */
+    private final Executor target;
+
+    /**
+     * The tasks pending
+     */
+    private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Whether a batch is scheduled on the target executor or running
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    /**
+     * The batch to drain the pending tasks
+     */
+    private final Runnable batch = new Runnable() {
+        @Override
+        public void run() {
+            boolean drained = false;
+            try {
+                do {
+                    Runnable task;
+                    while ((task = tasks.poll()) != null) {
+                        task.run();
+                    }
+                    scheduled.set(false);
+
+                    // the tasks submitted after the last poll found the batch still scheduled
+                } while (!tasks.isEmpty() && scheduled.compareAndSet(false, true));
+                drained = true;
+            } finally {
+                if (!drained) {
+                    // thrown by a task, the rest tasks are run by the next batch
+                    scheduled.set(false);
+                    if (!tasks.isEmpty()) {
+                        schedule();
+                    }
+                }
+            }
+        }
+    };
+
+    /**
+     * Constructs a new batching executor.
+     *
+     * @param target The executor to run the batches
+     */
+    public BatchingExecutor(Executor target) {
+        this.target = requireNonNull(target, "The target executor must not be null.");
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        tasks.offer(requireNonNull(command, "The command must not be null."));
+        schedule();
+    }
+
+    /**
+     * Schedules a batch on the target executor if not scheduled.
+     */
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            target.execute(batch);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.util;
+
+import java.util.Arrays;
+
+/**
+ * The map from the int keys to the objects without boxing the keys, backed by an open-addressing
+ * table with linear probing. The removed keys are backward-shifted, so no tombstones are left and
+ * the lookups stay O(1). <br /><br />
+ *
+ * The map is not thread-safe.
+ *
+ * @param <V> The type of the values
+ */
+public final class IntObjectMap<V> {
+
+    /**
+     * The minimum capacity of the table, must be a power of two
+     */
+    private static final int MIN_CAPACITY = 8;
+
+    /**
+     * The keys of the slots
+     */
+    private int[] keys;
+
+    /**
+     * The values of the slots, <code>null</code> for the empty slots
+     */
+    private Object[] values;
+
+    /**
+     * The number of the entries
+     */
+    private int size;
+
+    /**
+     * Constructs a new empty map.
+     */
+    public IntObjectMap() {
+        keys   = new int[MIN_CAPACITY];
+        values = new Object[MIN_CAPACITY];
+    }
+
+    /**
+     * Returns the value of the key.
+     *
+     * @param key The key
+     * @return The value, or <code>null</code> if not found
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int mask = keys.length - 1;
+        for (int index = indexOf(key, mask); values[index] != null; index = (index + 1) & mask) {
+            if (keys[index] == key) {
+                return (V) values[index];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Puts the value of the key.
+     *
+     * @param key   The key
+     * @param value The value, must not be <code>null</code>
+     * @return The previous value, or <code>null</code> if none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        Objects.requireNonNull(value, "The value must not be null.");
+        int mask  = keys.length - 1;
+        int index = indexOf(key, mask);
+        for (; values[index] != null; index = (index + 1) & mask) {
+            if (keys[index] == key) {
+                V previous    = (V) values[index];
+                values[index] = value;
+                return previous;
+            }
+        }
+        keys[index]   = key;
+        values[index] = value;
+        if (++size > keys.length / 2) {
+            resize(keys.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * Removes the value of the key.
+     *
+     * @param key The key
+     * @return The removed value, or <code>null</code> if not found
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int mask = keys.length - 1;
+        for (int index = indexOf(key, mask); values[index] != null; index = (index + 1) & mask) {
+            if (keys[index] != key) {
+                continue;
+            }
+            V removed = (V) values[index];
+            shift(index, mask);
+            size--;
+            return removed;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of the entries.
+     *
+     * @return The number of the entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all of the entries.
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Shifts the entries after the removed slot backward, so the probing sequences stay unbroken.
+     *
+     * @param removed The index of the removed slot
+     * @param mask    The mask of the indexes
+     */
+    private void shift(int removed, int mask) {
+        int gap = removed;
+        for (int index = (gap + 1) & mask; values[index] != null; index = (index + 1) & mask) {
+            int home = indexOf(keys[index], mask);
+
+            // move the entry to the gap if its home is not between the gap and the entry
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                keys[gap]   = keys[index];
+                values[gap] = values[index];
+                gap         = index;
+            }
+        }
+        values[gap] = null;
+    }
+
+    /**
+     * Resizes the table.
+     *
+     * @param capacity The new capacity, must be a power of two
+     */
+    private void resize(int capacity) {
+        int[] oldKeys       = keys;
+        Object[] oldValues  = values;
+        keys                = new int[capacity];
+        values              = new Object[capacity];
+        int mask            = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] == null) {
+                continue;
+            }
+            int index = indexOf(oldKeys[i], mask);
+            while (values[index] != null) {
+                index = (index + 1) & mask;
+            }
+            keys[index]   = oldKeys[i];
+            values[index] = oldValues[i];
+        }
+    }
+
+    /**
+     * Returns the home index of the key.
+     *
+     * @param key  The key
+     * @param mask The mask of the indexes
+     * @return The home index
+     */
+    private static int indexOf(int key, int mask) {
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,217 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell;
+
+import com.wujilin.doorbell.util.BatchingExecutor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Stresses ringing from many threads with the callbacks handed off in batches to a single
+ * dispatch thread, no ring is lost or duplicated.
+ */
+public class ConcurrentRingTest {
+
+    /**
+     * The number of the threads ringing
+     */
+    private static final int THREAD_COUNT = 8;
+
+    /**
+     * The number of the rounds, each round ends with the last batch which may strand the rings
+     */
+    private static final int ROUND_COUNT = 100;
+
+    /**
+     * The number of the rings of each thread in a round
+     */
+    private static final int RING_COUNT = 50;
+
+    /**
+     * The seconds to wait for the rings
+     */
+    private static final long TIMEOUT_SECONDS = 10;
+
+    /**
+     * The dispatch thread, like the main thread of Android
+     */
+    private ExecutorService dispatcher;
+
+    /**
+     * The executor testing the conditions
+     */
+    private ExecutorService workers;
+
+    /**
+     * The number of the batches run by the dispatch thread
+     */
+    private final AtomicInteger batches = new AtomicInteger();
+
+    /**
+     * The dispatch thread, set when started
+     */
+    private volatile Thread dispatchThread;
+
+    @Before
+    public void setUp() {
+        dispatcher = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                dispatchThread = new Thread(runnable, "dispatch");
+                return dispatchThread;
+            }
+        });
+        workers = Executors.newFixedThreadPool(4);
+        AbstractDoorbell.setCallbackExecutor(new BatchingExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                batches.incrementAndGet();
+                dispatcher.execute(command);
+            }
+        }));
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        AbstractDoorbell.setCallbackExecutor(null);
+        workers.shutdownNow();
+        dispatcher.shutdownNow();
+    }
+
+    @Test
+    public void ringExactlyOnceOnDispatchThread() throws InterruptedException {
+        final int total                = ROUND_COUNT * THREAD_COUNT * RING_COUNT;
+        final AtomicIntegerArray calls = new AtomicIntegerArray(total);
+        final AtomicInteger misplaced  = new AtomicInteger();
+        for (int round = 0; round < ROUND_COUNT; round++) {
+            ring(round * THREAD_COUNT * RING_COUNT, calls, misplaced);
+        }
+
+        // lets the duplicated rings, if any, arrive before checking
+        workers.shutdown();
+        assertTrue(workers.awaitTermination(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        final CountDownLatch drained = new CountDownLatch(1);
+        dispatcher.execute(new Runnable() {
+            @Override
+            public void run() {
+                drained.countDown();
+            }
+        });
+        assertTrue(drained.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        for (int i = 0; i < total; i++) {
+            assertEquals("Ring " + i, 1, calls.get(i));
+        }
+        assertEquals(0, misplaced.get());
+        assertTrue("Not batched", batches.get() < total);
+    }
+
+    /**
+     * Rings from all of the threads at once, and waits for the callbacks of the rings.
+     *
+     * @param offset    The id of the first ring
+     * @param calls     The numbers of the callbacks by the ids of the rings
+     * @param misplaced The number of the callbacks not on the dispatch thread
+     */
+    private void ring(int offset, final AtomicIntegerArray calls, final AtomicInteger misplaced)
+            throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done  = new CountDownLatch(THREAD_COUNT * RING_COUNT);
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < THREAD_COUNT; t++) {
+            final int first = offset + t * RING_COUNT;
+            Thread thread   = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    awaitQuietly(start);
+                    for (int i = first; i < first + RING_COUNT; i++) {
+                        final int id = i;
+                        AbstractDoorbell.create(id % 3 != 0)
+                                .async(workers)
+                                .ring(new SimpleRingListener() {
+                                    @Override
+                                    public void onAllow() {
+                                        record(id);
+                                    }
+
+                                    @Override
+                                    public void onBlock() {
+                                        record(id);
+                                    }
+
+                                    /**
+                                     * Records the callback of the ring.
+                                     *
+                                     * @param id The id of the ring
+                                     */
+                                    private void record(int id) {
+                                        if (Thread.currentThread() != dispatchThread) {
+                                            misplaced.incrementAndGet();
+                                        }
+                                        calls.incrementAndGet(id);
+                                        done.countDown();
+                                    }
+                                });
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue("Rings lost from " + offset, done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Waits for the latch, ignoring the interruption.
+     *
+     * @param latch The latch
+     */
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
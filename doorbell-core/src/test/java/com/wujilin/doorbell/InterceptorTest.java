@@ -0,0 +1,286 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell;
+
+import com.wujilin.doorbell.door.SimpleDoor;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Tests the interceptors of the doorbells.
+ */
+public class InterceptorTest {
+
+    @Test
+    public void shortCircuitDoesNotBlockDoor() {
+        CountingDoor door = new CountingDoor(true);
+        boolean passed    = AbstractDoorbell.create(door)
+                .intercept(new Interceptor() {
+                    @Override
+                    public boolean intercept(Chain chain) {
+                        return false;
+                    }
+                })
+                .plan(new SimpleRingListener())
+                .ring();
+        assertFalse(passed);
+        assertEquals(0, door.tested);
+        assertEquals(0, door.blocked);
+    }
+
+    @Test
+    public void blockedDoorIsBlocked() {
+        CountingDoor door = new CountingDoor(false);
+        boolean passed    = AbstractDoorbell.create(door)
+                .intercept(new Interceptor() {
+                    @Override
+                    public boolean intercept(Chain chain) {
+                        return chain.proceed();
+                    }
+                })
+                .plan(new SimpleRingListener())
+                .ring();
+        assertFalse(passed);
+        assertEquals(1, door.tested);
+        assertEquals(1, door.blocked);
+    }
+
+    @Test
+    public void replaceInterceptorInPlace() {
+        final StringBuilder called       = new StringBuilder();
+        Interceptor first                = new NamedInterceptor("a", called);
+        CallbackDoorbell.Builder builder = AbstractDoorbell.create(new CountingDoor(true));
+        builder.intercept(first);
+        builder.intercept(new NamedInterceptor("b", called));
+        builder.replaceInterceptor(first, new NamedInterceptor("c", called));
+        builder.ring(new SimpleRingListener());
+        assertEquals("cb", called.toString());
+    }
+
+    @Test
+    public void recordedDoorsCalledWhenDelivered() {
+        final CountingDoor routeDoor = new CountingDoor(true);
+        QueuedExecutor executor      = new QueuedExecutor();
+        QueuedExecutor callbacks     = new QueuedExecutor();
+        AbstractDoorbell.setCallbackExecutor(callbacks);
+        try {
+            AbstractDoorbell.create(new CountingDoor(true))
+                    .async(executor)
+                    .intercept(new Interceptor() {
+                        @Override
+                        public boolean intercept(Chain chain) {
+                            if (!routeDoor.test()) {
+                                return false;
+                            }
+                            if (!chain.proceed()) {
+                                return false;
+                            }
+                            ((RingChain) chain).pass(new Door[]{ routeDoor });
+                            return true;
+                        }
+                    })
+                    .ring(new SimpleRingListener());
+
+            // tested on the executor, the door callbacks wait for the callback executor
+            executor.runAll();
+            assertEquals(1, routeDoor.tested);
+            assertEquals(0, routeDoor.allowed);
+            callbacks.runAll();
+            assertEquals(1, routeDoor.allowed);
+        } finally {
+            AbstractDoorbell.setCallbackExecutor(null);
+        }
+    }
+
+    @Test
+    public void onPassCalledOnlyIfPassed() {
+        CountingDoor door         = new CountingDoor(false);
+        PassCountingDoorbell ring = new PassCountingDoorbell(door, false);
+        assertFalse(ring.ring(new SimpleRingListener()));
+        assertEquals(0, ring.passes);
+        assertEquals(1, door.blocked);
+
+        door = new CountingDoor(true);
+        ring = new PassCountingDoorbell(door, false);
+        assertFalse(ring.ring(new SimpleRingListener()));
+        assertEquals(1, ring.passes);
+        assertEquals(0, door.allowed);
+    }
+
+    /**
+     * The doorbell counts the calls of {@link #onPass()}.
+     */
+    private static class PassCountingDoorbell extends AbstractDoorbell {
+
+        /**
+         * The result of {@link #onPass()}
+         */
+        private final boolean pass;
+
+        /**
+         * The times called {@link #onPass()}
+         */
+        private int passes;
+
+        /**
+         * Constructs a doorbell.
+         *
+         * @param door The door to test
+         * @param pass The result of {@link #onPass()}
+         */
+        PassCountingDoorbell(Door door, boolean pass) {
+            super(new AbstractDoorbell.Builder() {
+                @Override
+                protected AbstractDoorbell build() {
+                    throw new UnsupportedOperationException();
+                }
+            }.door(door));
+            this.pass = pass;
+        }
+
+        @Override
+        protected boolean onPass() {
+            passes++;
+            return pass;
+        }
+    }
+
+    /**
+     * The executor queues the tasks until run.
+     */
+    private static class QueuedExecutor implements Executor {
+
+        /**
+         * The queued tasks
+         */
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        /**
+         * Runs the queued tasks.
+         */
+        void runAll() {
+            List<Runnable> queued = new ArrayList<>(tasks);
+            tasks.clear();
+            for (Runnable task : queued) {
+                task.run();
+            }
+        }
+    }
+
+    /**
+     * The door counts the tests, the blocks and the allows.
+     */
+    private static class CountingDoor extends SimpleDoor {
+
+        /**
+         * The result of the test
+         */
+        private final boolean passed;
+
+        /**
+         * The times tested
+         */
+        private int tested;
+
+        /**
+         * The times blocked
+         */
+        private int blocked;
+
+        /**
+         * The times allowed
+         */
+        private int allowed;
+
+        /**
+         * Constructs a door.
+         *
+         * @param passed The result of the test
+         */
+        CountingDoor(boolean passed) {
+            this.passed = passed;
+        }
+
+        @Override
+        public boolean test() {
+            tested++;
+            return passed;
+        }
+
+        @Override
+        public void onBlock() {
+            blocked++;
+        }
+
+        @Override
+        public void onAllow() {
+            allowed++;
+        }
+    }
+
+    /**
+     * The interceptor appends its name when called.
+     */
+    private static class NamedInterceptor implements Interceptor {
+
+        /**
+         * The name to append
+         */
+        private final String name;
+
+        /**
+         * The names of the interceptors called
+         */
+        private final StringBuilder called;
+
+        /**
+         * Constructs an interceptor.
+         *
+         * @param name   The name to append
+         * @param called The names of the interceptors called
+         */
+        NamedInterceptor(String name, StringBuilder called) {
+            this.name   = name;
+            this.called = called;
+        }
+
+        @Override
+        public boolean intercept(Chain chain) {
+            called.append(name);
+            return chain.proceed();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell;
+
+import com.wujilin.doorbell.door.ObservableDoor;
+import com.wujilin.doorbell.door.SimpleDoor;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the blocked rings are parked and replayed once.
+ */
+public class ParkedRingsTest {
+
+    @After
+    public void tearDown() {
+        AbstractDoorbell.clearParkedRings();
+    }
+
+    @Test
+    public void replayPlanBlockedManyTimesOnce() {
+        final int[] allowed = new int[1];
+        SimpleDoor door     = new SimpleDoor();
+        RingPlan plan       = AbstractDoorbell.create(door)
+                .park(1, TimeUnit.MINUTES)
+                .plan(new OnAllowListener() {
+                    @Override
+                    public void onAllow() {
+                        allowed[0]++;
+                    }
+                });
+        for (int i = 0; i < 3; i++) {
+            plan.ring();
+        }
+        assertEquals(1, AbstractDoorbell.resume(door));
+        assertEquals(1, allowed[0]);
+        assertEquals(0, AbstractDoorbell.resume(door));
+    }
+
+    @Test
+    public void replayDifferentDoorbellsInOrder() {
+        final StringBuilder allowed = new StringBuilder();
+        SimpleDoor door             = new SimpleDoor();
+        for (int i = 0; i < 3; i++) {
+            final int index = i;
+            AbstractDoorbell.create(door)
+                    .park(1, TimeUnit.MINUTES)
+                    .ring(new OnAllowListener() {
+                        @Override
+                        public void onAllow() {
+                            allowed.append(index);
+                        }
+                    });
+        }
+        assertEquals(3, AbstractDoorbell.resume(door));
+        assertEquals("012", allowed.toString());
+    }
+
+    @Test
+    public void resumeObservableDoorOnlyIfAsked() {
+        assertEquals(0, ringAndPass(new ObservableDoor(false)));
+        assertEquals(1, ringAndPass(new ObservableDoor(false, true)));
+    }
+
+    @Test
+    public void ringBlockedByInterceptorNotParked() {
+        SimpleDoor door = new SimpleDoor();
+        AbstractDoorbell.create(door)
+                .park(1, TimeUnit.MINUTES)
+                .intercept(new Interceptor() {
+                    @Override
+                    public boolean intercept(Chain chain) {
+                        return false;
+                    }
+                })
+                .ring(new SimpleRingListener());
+        assertEquals(0, AbstractDoorbell.resume(door));
+    }
+
+    @Test
+    public void cancelledRingsDropped() {
+        SimpleDoor door                = new SimpleDoor();
+        final CancellableDoorbell ring = new CancellableDoorbell(new AbstractDoorbell.Builder() {
+            @Override
+            protected AbstractDoorbell build() {
+                throw new UnsupportedOperationException();
+            }
+        }.door(door).park(1, TimeUnit.MINUTES));
+        ring.ring(new SimpleRingListener());
+        ring.cancelled = true;
+        ParkedRings.releaseCancelled();
+        ring.cancelled = false;
+        assertEquals(0, AbstractDoorbell.resume(door));
+    }
+
+    /**
+     * Parks a blocked ring of the door, and then passes the door.
+     *
+     * @param door The blocked door
+     * @return The number of the rings allowed after the door passed
+     */
+    private static int ringAndPass(ObservableDoor door) {
+        final int[] allowed = new int[1];
+        AbstractDoorbell.create(door)
+                .park(1, TimeUnit.MINUTES)
+                .ring(new OnAllowListener() {
+                    @Override
+                    public void onAllow() {
+                        allowed[0]++;
+                    }
+                });
+        door.set(true);
+        return allowed[0];
+    }
+
+    /**
+     * The doorbell can be cancelled.
+     */
+    private static class CancellableDoorbell extends AbstractDoorbell {
+
+        /**
+         * Whether cancelled
+         */
+        private boolean cancelled;
+
+        /**
+         * Constructs a doorbell.
+         *
+         * @param builder The builder to build the doorbell
+         */
+        CancellableDoorbell(Builder builder) {
+            super(builder);
+        }
+
+        @Override
+        protected boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
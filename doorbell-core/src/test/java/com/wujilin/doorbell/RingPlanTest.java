@@ -0,0 +1,137 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell;
+
+import com.wujilin.doorbell.door.SimpleDoor;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Tests the ring plans ring without allocating.
+ */
+public class RingPlanTest {
+
+    /**
+     * The number of the rings to warm up
+     */
+    private static final int WARMUP_RINGS = 200000;
+
+    /**
+     * The number of the rings to measure
+     */
+    private static final int MEASURED_RINGS = 100000;
+
+    @Test
+    public void ringAllowedWithoutAllocating() {
+        CountingDoor door = new CountingDoor(true);
+        RingPlan plan     = AbstractDoorbell.create(door).plan(new SimpleRingListener());
+        assertEquals(0, allocatedBytes(plan));
+        assertEquals(WARMUP_RINGS + MEASURED_RINGS, door.allowCount);
+    }
+
+    @Test
+    public void ringBlockedWithoutAllocating() {
+        CountingDoor door = new CountingDoor(false);
+        RingPlan plan     = AbstractDoorbell.create(door).plan(new SimpleRingListener());
+        assertEquals(0, allocatedBytes(plan));
+        assertEquals(WARMUP_RINGS + MEASURED_RINGS, door.blockCount);
+    }
+
+    /**
+     * Returns the bytes allocated by the current thread to ring the given plan after warming up.
+     *
+     * @param plan The ring plan
+     * @return The allocated bytes
+     */
+    private static long allocatedBytes(RingPlan plan) {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        long id = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP_RINGS; i++) {
+            plan.ring();
+        }
+        // measures the measuring itself to subtract it
+        long before   = threads.getThreadAllocatedBytes(id);
+        long baseline = threads.getThreadAllocatedBytes(id) - before;
+        before        = threads.getThreadAllocatedBytes(id);
+        for (int i = 0; i < MEASURED_RINGS; i++) {
+            plan.ring();
+        }
+        return threads.getThreadAllocatedBytes(id) - before - baseline;
+    }
+
+    /**
+     * The door counts the callbacks.
+     */
+    private static final class CountingDoor extends SimpleDoor {
+
+        /**
+         * The result of the test
+         */
+        private final boolean passed;
+
+        /**
+         * The number of the allowed rings
+         */
+        int allowCount;
+
+        /**
+         * The number of the blocked rings
+         */
+        int blockCount;
+
+        /**
+         * Constructs a new counting door.
+         *
+         * @param passed The result of the test
+         */
+        CountingDoor(boolean passed) {
+            this.passed = passed;
+        }
+
+        @Override
+        public boolean test() {
+            return passed;
+        }
+
+        @Override
+        public void onAllow() {
+            allowCount++;
+        }
+
+        @Override
+        public void onBlock() {
+            blockCount++;
+        }
+    }
+}
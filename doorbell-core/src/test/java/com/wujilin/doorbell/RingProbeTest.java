@@ -0,0 +1,115 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell;
+
+import com.wujilin.doorbell.door.SimpleDoor;
+import com.wujilin.doorbell.trace.RingTracer;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the phases traced are ended even if the callbacks throw.
+ */
+public class RingProbeTest {
+
+    /**
+     * The tracer counts the phases not ended yet
+     */
+    private final CountingTracer tracer = new CountingTracer();
+
+    @After
+    public void tearDown() {
+        AbstractDoorbell.setTracer(null);
+    }
+
+    @Test
+    public void endPhaseWhenTestThrows() {
+        AbstractDoorbell.setTracer(tracer);
+        try {
+            AbstractDoorbell.create(new SimpleDoor() {
+                @Override
+                public boolean test() {
+                    throw new IllegalStateException();
+                }
+            }).ring(new SimpleRingListener());
+            fail();
+        } catch (IllegalStateException expected) {
+            assertEquals(1, tracer.begun);
+            assertEquals(0, tracer.open);
+        }
+    }
+
+    @Test
+    public void endPhaseWhenCallbackThrows() {
+        AbstractDoorbell.setTracer(tracer);
+        try {
+            AbstractDoorbell.create(new SimpleDoor() {
+                @Override
+                public boolean test() {
+                    return true;
+                }
+
+                @Override
+                public void onAllow() {
+                    throw new IllegalStateException();
+                }
+            }).ring(new SimpleRingListener());
+            fail();
+        } catch (IllegalStateException expected) {
+            assertEquals(2, tracer.begun);
+            assertEquals(0, tracer.open);
+        }
+    }
+
+    /**
+     * The tracer counts the phases begun and the phases not ended yet.
+     */
+    private static class CountingTracer implements RingTracer {
+
+        /**
+         * The number of the phases begun
+         */
+        private int begun;
+
+        /**
+         * The number of the phases not ended yet
+         */
+        private int open;
+
+        @Override
+        public void begin(Object door, int phase) {
+            begun++;
+            open++;
+        }
+
+        @Override
+        public void end(Object door, int phase) {
+            open--;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.condition;
+
+import com.wujilin.doorbell.Condition;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the cached condition tests the stale result again by a single thread.
+ */
+public class CachedConditionTest {
+
+    @Test
+    public void testStaleResultOnce() throws Exception {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger tests    = new AtomicInteger();
+        final CachedCondition cached = new CachedCondition(new Condition() {
+            @Override
+            public boolean test() {
+                if (tests.incrementAndGet() > 1) {
+                    entered.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return true;
+            }
+        }, 1, TimeUnit.MILLISECONDS);
+        assertTrue(cached.test());
+        Thread.sleep(5);
+
+        Thread retesting = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                cached.test();
+            }
+        });
+        retesting.start();
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        // the expired result is read while another thread tests again
+        assertTrue(cached.test());
+        assertEquals(2, tests.get());
+        release.countDown();
+        retesting.join();
+        assertEquals(2, cached.getMissCount());
+    }
+
+    @Test
+    public void testAgainAfterThrown() {
+        final AtomicInteger tests = new AtomicInteger();
+        CachedCondition cached    = new CachedCondition(new Condition() {
+            @Override
+            public boolean test() {
+                if (tests.incrementAndGet() == 1) {
+                    throw new IllegalStateException();
+                }
+                return false;
+            }
+        });
+        try {
+            cached.test();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertFalse(cached.test());
+        assertFalse(cached.test());
+        assertEquals(2, tests.get());
+    }
+}
@@ -0,0 +1,76 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.condition;
+
+import org.junit.Test;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the deadline condition when the executor rejects the tests.
+ */
+public class DeadlineConditionTest {
+
+    @Test
+    public void fallBackAtOnceWhenRejected() {
+        RejectingExecutor executor  = new RejectingExecutor();
+        DeadlineCondition condition = new DeadlineCondition(Conditions.CONDITION_FALSE, 10, TimeUnit.SECONDS,
+                DeadlineCondition.Fallback.ALLOW, executor);
+
+        long start = System.nanoTime();
+        assertTrue(condition.test());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(1, condition.getMissCount());
+
+        // the rejected test is not pending, so the next ring tests again
+        executor.rejecting = false;
+        assertFalse(condition.test());
+        assertEquals(1, condition.getMissCount());
+    }
+
+    /**
+     * The executor rejects the tasks, or runs them on the calling thread if not rejecting.
+     */
+    private static class RejectingExecutor implements Executor {
+
+        /**
+         * Whether to reject the tasks
+         */
+        private boolean rejecting = true;
+
+        @Override
+        public void execute(Runnable command) {
+            if (rejecting) {
+                throw new RejectedExecutionException();
+            }
+            command.run();
+        }
+    }
+}
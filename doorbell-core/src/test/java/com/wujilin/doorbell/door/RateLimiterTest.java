@@ -0,0 +1,73 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.door;
+
+import com.wujilin.doorbell.util.Clock;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the available permits of the rate limiter agree with the acquisitions.
+ */
+public class RateLimiterTest {
+
+    @Test
+    public void noPermitsWhenRejected() {
+        ManualClock clock   = new ManualClock();
+        RateLimiter limiter = new RateLimiter(2, 100, TimeUnit.NANOSECONDS, 4, clock);
+        assertTrue(limiter.tryAcquire("key"));
+        assertTrue(limiter.tryAcquire("key"));
+
+        // the lead is between the tolerance and the tolerance plus an interval
+        clock.now = 20;
+        assertEquals(0, limiter.getAvailablePermits("key"));
+        assertFalse(limiter.tryAcquire("key"));
+
+        clock.now = 50;
+        assertEquals(1, limiter.getAvailablePermits("key"));
+        assertTrue(limiter.tryAcquire("key"));
+    }
+
+    /**
+     * The clock is moved manually.
+     */
+    private static class ManualClock implements Clock {
+
+        /**
+         * The current time in nanoseconds
+         */
+        private long now;
+
+        @Override
+        public long nanoTime() {
+            return now;
+        }
+    }
+}
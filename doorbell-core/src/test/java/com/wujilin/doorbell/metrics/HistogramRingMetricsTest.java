@@ -0,0 +1,63 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests the histogram ring metrics count the doors by identity.
+ */
+public class HistogramRingMetricsTest {
+
+    @Test
+    public void countDoorsOfSameClassApart() {
+        HistogramRingMetrics metrics = new HistogramRingMetrics();
+        Object first                 = new Object();
+        Object second                = new Object();
+        metrics.onTest(first, true, 10);
+        metrics.onTest(second, false, 10);
+        metrics.onTest(second, false, 10);
+
+        assertEquals(1, metrics.get(first).getAllowCount());
+        assertEquals(0, metrics.get(first).getBlockCount());
+        assertEquals(2, metrics.get(second).getBlockCount());
+        assertEquals(2, metrics.getAll().size());
+        assertNull(metrics.get(new Object()));
+    }
+
+    @Test
+    public void shareMetricsBeyondBound() {
+        HistogramRingMetrics metrics = new HistogramRingMetrics(1);
+        Object first                 = new Object();
+        metrics.onTest(first, true, 10);
+        metrics.onTest(new Object(), true, 10);
+        metrics.onTest(new Object(), true, 10);
+
+        assertEquals(1, metrics.get(first).getAllowCount());
+        assertEquals(2, metrics.get(HistogramRingMetrics.OTHERS).getAllowCount());
+    }
+}
@@ -0,0 +1,127 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.payload;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the payload store bounded by bytes and spilling on the executor.
+ */
+public class PayloadStoreTest {
+
+    @Test
+    public void evictByBytes() {
+        PayloadStore store = new PayloadStore(1000);
+        long first         = store.put(new byte[400]);
+        long second        = store.put(new byte[400]);
+        long third         = store.put(new byte[400]);
+
+        assertFalse(store.contains(first));
+        assertTrue(store.contains(second));
+        assertNull(store.get(first));
+        assertNotNull(store.get(second));
+        assertNotNull(store.get(third));
+
+        // the large payload is kept alone
+        long large = store.put(new byte[5000]);
+        assertNotNull(store.get(large));
+        assertNull(store.get(second));
+    }
+
+    @Test
+    public void spillOnExecutor() throws Exception {
+        File file               = File.createTempFile("payloads", null);
+        QueuedExecutor executor = new QueuedExecutor();
+        PayloadStore store      = new PayloadStore(1000, file, 64 * 1024, executor);
+        byte[] payload          = new byte[600];
+        payload[0]              = 1;
+        long token              = store.put(payload);
+        store.put(new byte[600]);
+
+        // evicted but not written yet, resolved from memory
+        assertEquals(1, executor.tasks.size());
+        assertTrue(store.contains(token));
+        assertSame(payload, store.get(token));
+
+        executor.runAll();
+        store.put(new byte[600]);
+        assertTrue(Arrays.equals(payload, (byte[]) store.get(token)));
+        assertTrue(file.delete());
+    }
+
+    @Test
+    public void compactWhenFull() throws Exception {
+        File file          = File.createTempFile("payloads", null);
+        PayloadSpill spill = new PayloadSpill(file, 4096);
+        for (long token = 1; token <= 20; token++) {
+            spill.write(token, new byte[500]);
+        }
+
+        // the oldest are dropped, the recent survive
+        assertNull(spill.read(1));
+        assertNotNull(spill.read(20));
+        assertNotNull(spill.read(19));
+        assertTrue(new PayloadSpill(file, 4096).contains(20));
+        assertTrue(file.delete());
+    }
+
+    /**
+     * The executor queues the tasks until run.
+     */
+    private static class QueuedExecutor implements Executor {
+
+        /**
+         * The queued tasks
+         */
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        /**
+         * Runs the queued tasks.
+         */
+        void runAll() {
+            for (Runnable task : tasks) {
+                task.run();
+            }
+            tasks.clear();
+        }
+    }
+}
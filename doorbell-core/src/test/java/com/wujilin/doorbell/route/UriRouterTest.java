@@ -0,0 +1,84 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.route;
+
+import com.wujilin.doorbell.Door;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests the uri router commits each segment to one branch.
+ */
+public class UriRouterTest {
+
+    @Test
+    public void doubleAcceptsPlainDecimalsOnly() {
+        RouteEntry route = route("Zoom");
+        UriRouter router = new UriRouter().register("zoom/{level:double}", route);
+        assertEquals(-1.5, router.match("zoom/-1.5").getDouble(0), 0);
+        assertEquals(2, router.match("zoom/2").getDouble(0), 0);
+        for (String level : new String[]{ "NaN", "Infinity", "1f", "0x1p3", "1e3", "1.", ".5", "-" }) {
+            assertNull(level, router.match("zoom/" + level));
+        }
+    }
+
+    @Test
+    public void restMatchesZeroOrMoreSegments() {
+        RouteEntry route = route("Search");
+        UriRouter router = new UriRouter().register("search/**", route);
+        assertSame(route, router.match("search").getRoute());
+        assertSame(route, router.match("search/a/b").getRoute());
+    }
+
+    @Test
+    public void deepestRestMatchesDeadEnd() {
+        RouteEntry rest   = route("Rest");
+        RouteEntry deeper = route("Deeper");
+        RouteEntry param  = route("Param");
+        UriRouter router  = new UriRouter()
+                .register("a/**", rest)
+                .register("a/b/c", deeper)
+                .register("a/{name}/d", param);
+
+        // the literal b is committed, so the parameter branch is never tried
+        assertSame(rest, router.match("a/b/d").getRoute());
+        assertSame(param, router.match("a/x/d").getRoute());
+        assertEquals("x", router.match("a/x/d").getString(0));
+        assertEquals(0, router.match("a/x/y").size());
+    }
+
+    /**
+     * Creates a route of the activity without doors.
+     *
+     * @param className The class name of the activity
+     * @return The route
+     */
+    private static RouteEntry route(String className) {
+        return new RouteEntry(className, new Door[0], Route.TRANSITION_NOT_SET, Route.TRANSITION_NOT_SET);
+    }
+}
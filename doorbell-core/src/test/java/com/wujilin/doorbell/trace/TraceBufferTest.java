@@ -0,0 +1,57 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.trace;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static com.wujilin.doorbell.metrics.RingMetrics.PHASE_START;
+import static com.wujilin.doorbell.metrics.RingMetrics.PHASE_TEST;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the trace buffer exports the events kept.
+ */
+public class TraceBufferTest {
+
+    @Test
+    public void exportEventsKept() throws IOException {
+        TraceBuffer trace = new TraceBuffer(2);
+        trace.begin("door", PHASE_TEST);
+        trace.begin("door", PHASE_START);
+        trace.end("door", PHASE_START);
+
+        StringBuilder out = new StringBuilder();
+        trace.writeChromeTrace(out);
+        String json = out.toString();
+        assertEquals(3, trace.getCount());
+        assertFalse(json, json.contains("\"test\""));
+        assertTrue(json, json.contains("\"name\":\"start\",\"cat\":\"doorbell\",\"ph\":\"B\""));
+        assertTrue(json, json.contains("\"name\":\"start\",\"cat\":\"doorbell\",\"ph\":\"E\""));
+        assertTrue(json, json.contains("\"door\":\"java.lang.String\""));
+    }
+}
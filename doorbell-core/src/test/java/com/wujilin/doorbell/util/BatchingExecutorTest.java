@@ -0,0 +1,75 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the batching executor posts one batch per burst.
+ */
+public class BatchingExecutorTest {
+
+    @Test
+    public void runTaskSubmittedWhileDrainingInSameBatch() {
+        final List<Runnable> posted     = new ArrayList<>();
+        final int[] ran                 = new int[1];
+        final BatchingExecutor executor = new BatchingExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                posted.add(command);
+            }
+        });
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                ran[0]++;
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        ran[0]++;
+                    }
+                });
+            }
+        });
+        assertEquals(1, posted.size());
+        posted.remove(0).run();
+        assertEquals(2, ran[0]);
+        assertEquals(0, posted.size());
+
+        // the next burst posts a new batch
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                ran[0]++;
+            }
+        });
+        assertEquals(1, posted.size());
+    }
+}
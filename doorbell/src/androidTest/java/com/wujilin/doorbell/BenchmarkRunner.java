@@ -0,0 +1,125 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell;
+
+import android.app.Instrumentation;
+import android.os.Bundle;
+import android.support.test.InstrumentationRegistry;
+import android.util.Log;
+
+import java.util.Arrays;
+
+/**
+ * Helper class for running the micro benchmarks of the Android classes on a device, the JMH
+ * benchmarks in <code>doorbell-benchmark</code> cannot load the Android framework. <br /><br />
+ *
+ * An operation is run on the main thread for a warmup, and then for a number of rounds of a fixed
+ * time. The nanoseconds per operation of the rounds are reported by the instrumentation status and
+ * the log with the tag <code>DoorbellBenchmark</code>.
+ */
+final class BenchmarkRunner {
+
+    /**
+     * The tag of the log
+     */
+    private static final String TAG = "DoorbellBenchmark";
+
+    /**
+     * The nanoseconds to warm up
+     */
+    private static final long WARMUP_NANOS = 2000000000L;
+
+    /**
+     * The nanoseconds of each round
+     */
+    private static final long ROUND_NANOS = 200000000L;
+
+    /**
+     * The number of the rounds
+     */
+    private static final int ROUNDS = 20;
+
+    /**
+     * The number of the operations between two clock readings
+     */
+    private static final int BATCH = 64;
+
+    /**
+     * Preventing from constructing.
+     */
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Runs the operation on the main thread and reports the nanoseconds per operation.
+     *
+     * @param name      The name of the benchmark
+     * @param operation The operation to measure
+     * @return The median nanoseconds per operation
+     */
+    static double run(final String name, final Runnable operation) {
+        final double[] rounds = new double[ROUNDS];
+        Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                runFor(operation, WARMUP_NANOS);
+                for (int i = 0; i < ROUNDS; i++) {
+                    rounds[i] = runFor(operation, ROUND_NANOS);
+                }
+            }
+        });
+        Arrays.sort(rounds);
+        double median = rounds[ROUNDS / 2];
+        String result = String.format("%s: median %.1f ns/op, p90 %.1f ns/op, min %.1f ns/op",
+                name, median, rounds[ROUNDS * 9 / 10], rounds[0]);
+        Log.i(TAG, result);
+
+        Bundle status = new Bundle();
+        status.putString(Instrumentation.REPORT_KEY_STREAMRESULT, result + "\n");
+        instrumentation.sendStatus(0, status);
+        return median;
+    }
+
+    /**
+     * Runs the operation repeatedly for the given time.
+     *
+     * @param operation The operation to run
+     * @param nanos     The nanoseconds to run
+     * @return The nanoseconds per operation
+     */
+    private static double runFor(Runnable operation, long nanos) {
+        long count = 0;
+        long start = System.nanoTime();
+        long now   = start;
+        while (now - start < nanos) {
+            for (int i = 0; i < BATCH; i++) {
+                operation.run();
+            }
+            count += BATCH;
+            now    = System.nanoTime();
+        }
+        return (double) (now - start) / count;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.Intent;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Benchmarks the cost of a blocked activity ring, creating the intents and putting the extras
+ * eagerly as before versus recording them and creating the intents only when allowed.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BlockedRingBenchmark {
+
+    /**
+     * The context to start activities
+     */
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getTargetContext();
+    }
+
+    @Test
+    public void eagerIntents() {
+        BenchmarkRunner.run("blocked ring, eager intents", new Runnable() {
+            @Override
+            public void run() {
+                Intent[] intents = {
+                        new Intent(context, FirstActivity.class),
+                        new Intent(context, SecondActivity.class)
+                };
+                for (Intent intent : intents) {
+                    intent.putExtra("id", 42L);
+                    intent.putExtra("name", "doorbell");
+                    intent.putExtra("count", 7);
+                    intent.putExtra("price", 9.99);
+                    intent.putExtra("vip", true);
+                }
+                Doorbell.with(context)
+                        .start(intents)
+                        .condition(false)
+                        .ring();
+            }
+        });
+    }
+
+    @Test
+    public void lazyIntents() {
+        BenchmarkRunner.run("blocked ring, lazy intents", new Runnable() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public void run() {
+                Doorbell.with(context)
+                        .start(FirstActivity.class, SecondActivity.class)
+                        .extra("id", 42L)
+                        .extra("name", "doorbell")
+                        .extra("count", 7)
+                        .extra("price", 9.99)
+                        .extra("vip", true)
+                        .condition(false)
+                        .ring();
+            }
+        });
+    }
+
+    /**
+     * The activity to start, never started since the rings are blocked.
+     */
+    public static class FirstActivity extends Activity {
+    }
+
+    /**
+     * The other activity to start, never started since the rings are blocked.
+     */
+    public static class SecondActivity extends Activity {
+    }
+}
@@ -0,0 +1,112 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Benchmarks putting 20 extras into 5 intents, one by one into each intent versus recording them
+ * without boxing and putting a single bundle into each intent.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ExtrasBenchmark {
+
+    /**
+     * The number of the intents
+     */
+    private static final int INTENT_COUNT = 5;
+
+    /**
+     * The number of the extras of each type, 4 types make 20 extras
+     */
+    private static final int EXTRA_COUNT = 5;
+
+    /**
+     * The names of the extras
+     */
+    private static final String[] NAMES = new String[EXTRA_COUNT];
+
+    static {
+        for (int i = 0; i < EXTRA_COUNT; i++) {
+            NAMES[i] = "extra" + i;
+        }
+    }
+
+    @Test
+    public void putExtraPerIntent() {
+        BenchmarkRunner.run("20 extras x 5 intents, putExtra per intent", new Runnable() {
+            @Override
+            public void run() {
+                Intent[] intents = newIntents();
+                for (int i = 0; i < EXTRA_COUNT; i++) {
+                    for (Intent intent : intents) {
+                        intent.putExtra(NAMES[i] + "i", i);
+                        intent.putExtra(NAMES[i] + "l", (long) i);
+                        intent.putExtra(NAMES[i] + "b", (i & 1) == 0);
+                        intent.putExtra(NAMES[i] + "s", NAMES[i]);
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void putExtrasOnce() {
+        BenchmarkRunner.run("20 extras x 5 intents, one bundle", new Runnable() {
+            @Override
+            public void run() {
+                Extras extras = new Extras();
+                for (int i = 0; i < EXTRA_COUNT; i++) {
+                    extras.put(NAMES[i] + "i", i);
+                    extras.put(NAMES[i] + "l", (long) i);
+                    extras.put(NAMES[i] + "b", (i & 1) == 0);
+                    extras.put(NAMES[i] + "s", NAMES[i]);
+                }
+                Intent[] intents = newIntents();
+                Bundle bundle = extras.toBundle();
+                for (Intent intent : intents) {
+                    intent.putExtras(bundle);
+                }
+            }
+        });
+    }
+
+    /**
+     * Creates the intents to put the extras into.
+     *
+     * @return The intents
+     */
+    private static Intent[] newIntents() {
+        Intent[] intents = new Intent[INTENT_COUNT];
+        for (int i = 0; i < INTENT_COUNT; i++) {
+            intents[i] = new Intent("com.wujilin.doorbell.BENCHMARK");
+        }
+        return intents;
+    }
+}
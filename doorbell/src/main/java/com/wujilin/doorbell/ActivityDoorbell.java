@@ -24,15 +24,36 @@ SOFTWARE.
 package com.wujilin.doorbell;
 
 import android.app.Activity;
+import android.app.Application;
+import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
+import android.net.Uri;
 import android.os.Bundle;
 import android.os.Parcelable;
 import android.support.annotation.AnimRes;
 
-import java.io.Serializable;
+import com.wujilin.doorbell.payload.PayloadStore;
+import com.wujilin.doorbell.route.Route;
+import com.wujilin.doorbell.route.RouteEntry;
+import com.wujilin.doorbell.route.Routes;
+import com.wujilin.doorbell.route.UriMatch;
+import com.wujilin.doorbell.route.UriRouter;
+import com.wujilin.doorbell.starter.AbstractStarter;
+import com.wujilin.doorbell.util.Clock;
 
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static android.os.Build.VERSION.SDK_INT;
+import static android.os.Build.VERSION_CODES.ICE_CREAM_SANDWICH;
+import static com.wujilin.doorbell.metrics.RingMetrics.PHASE_START;
+import static com.wujilin.doorbell.metrics.RingMetrics.PHASE_TRANSITION;
 import static com.wujilin.doorbell.starter.Starters.STARTER_NULL;
+import static com.wujilin.doorbell.util.Objects.requireNonNull;
 
 /**
  * The class represents the doorbell to ring to start activities.
@@ -44,51 +65,108 @@ class ActivityDoorbell extends Doorbell {
      */
     public static final int NO_RESULT = -1;
 
+    /**
+     * The default minutes to keep the parked rings
+     */
+    private static final long DEFAULT_PARK_MINUTES = 5;
+
+    /**
+     * The listener does nothing when ringing
+     */
+    private static final RingListener LISTENER_NULL = new SimpleRingListener();
+
+    /**
+     * Whether the lifecycle callbacks are registered to drop the parked rings
+     */
+    private static boolean watching;
+
     /**
      * The starter to start activity
      */
-    private Starter starter;
+    private final Starter starter;
 
     /**
      * The request code
      */
-    private int requestCode;
+    private final int requestCode;
+
+    /**
+     * The listener to be notified of the result, or <code>null</code> if none
+     */
+    private final OnResultListener resultListener;
+
+    /**
+     * The activity classes to be launched
+     */
+    private final Class<?>[] activityClasses;
+
+    /**
+     * The intents given for starting activities
+     */
+    private final Intent[] givenIntents;
+
+    /**
+     * The class name of the activity of the route
+     */
+    private final String className;
+
+    /**
+     * The data uri of the intent of the route
+     */
+    private final Uri data;
+
+    /**
+     * The extras to put into the intents
+     */
+    private final Extras extras;
 
     /**
-     * The intents for starting activities
+     * The intents for starting activities, created when allowed to ring for the first time
      */
-    private Intent[] intents;
+    private volatile Intent[] intents;
 
     /**
      * Additional options for how the Activity should be started
      */
-    private Bundle options;
+    private final Bundle options;
 
     /**
      * The animation resource to use for the incoming activity
      */
     @AnimRes
-    private int enter;
+    private final int enter;
 
     /**
      * The animation resource to use for the outgoing activity
      */
     @AnimRes
-    private int exit;
+    private final int exit;
 
     /**
-     * Constructs a new activity doorbell.
+     * The throttle to drop the duplicate rings, or <code>null</code> if not throttled
+     */
+    private final Throttle throttle;
+
+    /**
+     * Constructs a new activity doorbell, the activity classes, the intents and the extras are
+     * copied, so the builder can be changed or reused without affecting the doorbell.
      *
      * @param builder The builder to build the activity doorbell
      */
     private ActivityDoorbell(Builder builder) {
         super(builder);
-        this.starter     = builder.starter;
-        this.requestCode = builder.requestCode;
-        this.intents     = builder.intents;
-        this.options     = builder.options;
-        this.enter       = builder.enter;
-        this.exit        = builder.exit;
+        this.starter         = builder.starter;
+        this.requestCode     = builder.requestCode;
+        this.resultListener  = builder.resultListener;
+        this.activityClasses = builder.activityClasses == null ? null : builder.activityClasses.clone();
+        this.givenIntents    = copyOf(builder.intents);
+        this.className       = builder.className;
+        this.data            = builder.data;
+        this.extras          = builder.extras.copy();
+        this.options         = builder.options;
+        this.enter           = builder.enter;
+        this.exit            = builder.exit;
+        this.throttle        = builder.throttle;
     }
 
     /**
@@ -101,23 +179,204 @@ class ActivityDoorbell extends Doorbell {
     }
 
     @Override
-    protected void onAllow() {
+    protected void onAllow(Object target) {
+        Intent[] intents = target instanceof Intent[] ? (Intent[]) target : getIntents();
         if (intents == null || intents.length == 0) {
             return;
         }
-        start();
-        overridePendingTransition();
+        extras.putPayloads(intents);
+        RingProbe probe = getProbe();
+        if (probe == null) {
+            start(intents);
+            overridePendingTransition();
+            return;
+        }
+        long begin = probe.begin(getDoor(), PHASE_START);
+        try {
+            start(intents);
+        } finally {
+            probe.end(getDoor(), PHASE_START, begin);
+        }
+        begin = probe.begin(getDoor(), PHASE_TRANSITION);
+        try {
+            overridePendingTransition();
+        } finally {
+            probe.end(getDoor(), PHASE_TRANSITION, begin);
+        }
+    }
+
+    @Override
+    protected boolean onPass() {
+        if (throttle == null) {
+            return true;
+        }
+        Object host = starter;
+        if (starter instanceof AbstractStarter) {
+            Object object = ((AbstractStarter<?>) starter).getStarter();
+            if (object != null) {
+                host = object;
+            }
+        }
+        return throttle.tryAcquire(host, getTargetName());
+    }
+
+    /**
+     * Returns the intents for starting activities, creates them and puts the extras into them
+     * if not created yet.
+     *
+     * @return The intents, or <code>null</code> if the activity of the starter is gone
+     */
+    private Intent[] getIntents() {
+        Intent[] intents = this.intents;
+        if (intents != null) {
+            return intents;
+        }
+        intents = createIntents(false);
+        if (intents != null) {
+            this.intents = intents;
+        }
+        return intents;
+    }
+
+    /**
+     * Creates the intents for starting activities and puts the extras into them.
+     *
+     * @param copy Whether to copy the given intents rather than to put the extras into the copies
+     *             owned by this doorbell
+     * @return The intents, or <code>null</code> if the activity of the starter is gone
+     */
+    private Intent[] createIntents(boolean copy) {
+        Intent[] intents;
+        if (activityClasses != null) {
+            Context context = starter.getActivity();
+            if (context == null) {
+                return null;
+            }
+            intents = new Intent[activityClasses.length];
+            for (int i = 0; i < activityClasses.length; i++) {
+                intents[i] = new Intent(context, activityClasses[i]);
+            }
+        } else if (className != null) {
+            Context context = starter.getActivity();
+            if (context == null) {
+                return null;
+            }
+            intents = new Intent[]{ new Intent().setClassName(context, className).setData(data) };
+        } else if (copy) {
+            intents = copyOf(givenIntents);
+        } else {
+            intents = givenIntents;
+        }
+        if (!extras.isEmpty()) {
+            // the bundle is copied by each intent, so it can be shared safely
+            Bundle bundle = extras.toBundle();
+            for (Intent intent : intents) {
+                intent.putExtras(bundle);
+            }
+        }
+        return intents;
+    }
+
+    /**
+     * Copies the intents.
+     *
+     * @param intents The intents to copy
+     * @return The copies of the intents
+     */
+    private static Intent[] copyOf(Intent[] intents) {
+        Intent[] copies = new Intent[intents.length];
+        for (int i = 0; i < intents.length; i++) {
+            copies[i] = new Intent(intents[i]);
+        }
+        return copies;
+    }
+
+    /**
+     * Creates new intents for starting activities, the interceptors can rewrite them in place
+     * without affecting other ringings. The intents are created only if an interceptor asks.
+     *
+     * @return The new intents, or <code>null</code> if the activity of the starter is gone
+     */
+    @Override
+    protected Object newTarget() {
+        return createIntents(true);
+    }
+
+    /**
+     * Returns the name of the target to start, that is the last activity class or the component or
+     * action of the last intent.
+     *
+     * @return The name of the target to start
+     */
+    private String getTargetName() {
+        if (activityClasses != null) {
+            return activityClasses[activityClasses.length - 1].getName();
+        }
+        if (className != null) {
+            return className;
+        }
+        if (givenIntents.length == 0) {
+            return "";
+        }
+        Intent intent           = givenIntents[givenIntents.length - 1];
+        ComponentName component = intent.getComponent();
+        if (component != null) {
+            return component.getClassName();
+        }
+        String action = intent.getAction();
+        return action == null ? "" : action;
+    }
+
+    @Override
+    protected boolean isDispatchThread() {
+        return MainThreadExecutor.isMainThread();
+    }
+
+    @Override
+    protected boolean isCancelled() {
+        return starter instanceof AbstractStarter && ((AbstractStarter<?>) starter).isReleased();
+    }
+
+    /**
+     * Watches the activities destroyed to drop the parked rings started from them, since the
+     * listeners of the rings usually reference the activities.
+     */
+    @Override
+    protected void onPark() {
+        watch(starter.getActivity());
+    }
+
+    /**
+     * Registers the lifecycle callbacks to the application of the activity if not registered.
+     *
+     * @param activity The activity of the starter, or <code>null</code> if gone
+     */
+    private static synchronized void watch(Activity activity) {
+        if (watching || activity == null || SDK_INT < ICE_CREAM_SANDWICH) {
+            return;
+        }
+        Application application = activity.getApplication();
+        if (application != null) {
+            application.registerActivityLifecycleCallbacks(new DestroyCallbacks());
+            watching = true;
+        }
     }
 
     /**
      * Starts the activities.
+     *
+     * @param intents The intents for starting activities
      */
-    private void start() {
+    private void start(Intent[] intents) {
         if (intents.length > 1) {
             starter.startActivities(intents, options);
             return;
         }
         Intent intent = intents[0];
+        if (resultListener != null) {
+            starter.startActivityForResult(intent, ResultRegistry.register(starter, resultListener), options);
+            return;
+        }
         switch (requestCode) {
             case NO_RESULT:
                 starter.startActivity(intent, options);
@@ -166,11 +425,41 @@ class ActivityDoorbell extends Doorbell {
          */
         private int requestCode = NO_RESULT;
 
+        /**
+         * The listener to be notified of the result
+         */
+        private OnResultListener resultListener;
+
+        /**
+         * The activity classes to be launched, the intents will be created when allowed to ring
+         */
+        private Class<?>[] activityClasses;
+
         /**
          * The array of intents for starting activities.
          */
         private Intent[] intents = new Intent[0];
 
+        /**
+         * The class name of the activity of the route, the intent will be created when allowed to ring
+         */
+        private String className;
+
+        /**
+         * The data uri of the intent of the route
+         */
+        private Uri data;
+
+        /**
+         * The interceptor testing the doors of the route, replaced when routed again
+         */
+        private RouteInterceptor routeInterceptor;
+
+        /**
+         * The extras to put into the intents when allowed to ring
+         */
+        private final Extras extras = new Extras();
+
         /**
          * Additional options for how the Activity should be started
          */
@@ -186,6 +475,11 @@ class ActivityDoorbell extends Doorbell {
          */
         private int exit = TRANSITION_NOT_SET;
 
+        /**
+         * The throttle to drop the duplicate rings
+         */
+        private Throttle throttle;
+
         /**
          * Construct a new builder object with the given starter.
          *
@@ -202,12 +496,12 @@ class ActivityDoorbell extends Doorbell {
          * @return this
          */
         public Builder start(Class<? extends Activity> activityClass) {
-            Context context = this.starter.getActivity();
-            if (context == null) {
+            if (activityClass == null) {
                 return this;
             }
-            Intent intent = new Intent(context, activityClass);
-            return start(intent);
+            this.activityClasses = new Class<?>[]{ activityClass };
+            this.className       = null;
+            return this;
         }
 
         /**
@@ -220,16 +514,9 @@ class ActivityDoorbell extends Doorbell {
             if (activityClasses == null || activityClasses.length == 0) {
                 return this;
             }
-            Context context = this.starter.getActivity();
-            if (context == null) {
-                return this;
-            }
-            Intent[] intents = new Intent[activityClasses.length];
-            for (int i = 0; i < activityClasses.length; i++) {
-                Intent intent = new Intent(context, activityClasses[i]);
-                intents[i]    = intent;
-            }
-            return start(intents);
+            this.activityClasses = activityClasses;
+            this.className       = null;
+            return this;
         }
 
         /**
@@ -242,7 +529,9 @@ class ActivityDoorbell extends Doorbell {
             if (intent == null) {
                 return this;
             }
-            this.intents = new Intent[]{ intent };
+            this.intents         = new Intent[]{ intent };
+            this.activityClasses = null;
+            this.className       = null;
             return this;
         }
 
@@ -256,7 +545,100 @@ class ActivityDoorbell extends Doorbell {
             if (intents == null || intents.length == 0) {
                 return this;
             }
-            this.intents = intents;
+            this.intents         = intents;
+            this.activityClasses = null;
+            this.className       = null;
+            return this;
+        }
+
+        /**
+         * Sets the route of the activity to be launched, the route is declared by {@link Route}
+         * and found in the route tables registered to {@link Routes}. The activity class is not
+         * loaded until launched. <br /><br />
+         *
+         * The doors required by the route are tested before the condition or the door of the
+         * doorbell, and the default transition of the route is used if no transition given.
+         *
+         * @param name The name of the route
+         * @return this
+         * @throws IllegalArgumentException If the route is not found
+         */
+        public Builder route(String name) {
+            RouteEntry route = Routes.find(name);
+            if (route == null) {
+                throw new IllegalArgumentException("The route " + name + " is not found.");
+            }
+            return route(route);
+        }
+
+        /**
+         * Sets the route of the activity to be launched by the deep link, the host and the path
+         * segments of the uri are matched by the router. The parameters of the pattern are put
+         * into the extras, and the uri is set as the data of the intent.
+         *
+         * @param router The router to match the uri
+         * @param uri    The uri of the deep link
+         * @return this
+         * @throws IllegalArgumentException If no route matched
+         * @see UriRouter
+         */
+        public Builder route(UriRouter router, Uri uri) {
+            requireNonNull(router, "The router must not be null.");
+            requireNonNull(uri, "The uri must not be null.");
+            List<String> segments = new ArrayList<String>(uri.getPathSegments().size() + 1);
+            if (uri.getHost() != null) {
+                segments.add(uri.getHost());
+            }
+            segments.addAll(uri.getPathSegments());
+            UriMatch match = router.match(segments);
+            if (match == null) {
+                throw new IllegalArgumentException("No route matched " + uri + ".");
+            }
+            for (int i = 0; i < match.size(); i++) {
+                String name = match.getName(i);
+                switch (match.getType(i)) {
+                    case UriMatch.TYPE_INT:
+                        extras.put(name, (int) match.getLong(i));
+                        break;
+                    case UriMatch.TYPE_LONG:
+                        extras.put(name, match.getLong(i));
+                        break;
+                    case UriMatch.TYPE_DOUBLE:
+                        extras.put(name, match.getDouble(i));
+                        break;
+                    case UriMatch.TYPE_BOOLEAN:
+                        extras.put(name, match.getBoolean(i));
+                        break;
+                    default:
+                        extras.put(name, match.getString(i));
+                        break;
+                }
+            }
+            route(match.getRoute());
+            this.data = uri;
+            return this;
+        }
+
+        /**
+         * Sets the route of the activity to be launched.
+         *
+         * @param route The route
+         * @return this
+         */
+        private Builder route(RouteEntry route) {
+            this.className       = route.getClassName();
+            this.data            = null;
+            this.activityClasses = null;
+            this.intents         = new Intent[0];
+            Door[] doors                      = route.getDoors();
+            RouteInterceptor routeInterceptor = doors.length > 0 ? new RouteInterceptor(doors) : null;
+            replaceInterceptor(this.routeInterceptor, routeInterceptor);
+            this.routeInterceptor = routeInterceptor;
+            if (enter == TRANSITION_NOT_SET && exit == TRANSITION_NOT_SET
+                    && (route.getEnter() != TRANSITION_NOT_SET || route.getExit() != TRANSITION_NOT_SET)) {
+                transition(route.getEnter() != TRANSITION_NOT_SET ? route.getEnter() : getDefaultEnter(),
+                        route.getExit() != TRANSITION_NOT_SET ? route.getExit() : getDefaultExit());
+            }
             return this;
         }
 
@@ -268,9 +650,7 @@ class ActivityDoorbell extends Doorbell {
          * @return this
          */
         public Builder extra(String name, boolean value) {
-            for (Intent intent : intents) {
-                intent.putExtra(name, value);
-            }
+            extras.put(name, value);
             return this;
         }
 
@@ -282,9 +662,7 @@ class ActivityDoorbell extends Doorbell {
          * @return this
          */
         public Builder extra(String name, int value) {
-            for (Intent intent : intents) {
-                intent.putExtra(name, value);
-            }
+            extras.put(name, value);
             return this;
         }
 
@@ -296,9 +674,7 @@ class ActivityDoorbell extends Doorbell {
          * @return this
          */
         public Builder extra(String name, long value) {
-            for (Intent intent : intents) {
-                intent.putExtra(name, value);
-            }
+            extras.put(name, value);
             return this;
         }
 
@@ -310,9 +686,7 @@ class ActivityDoorbell extends Doorbell {
          * @return this
          */
         public Builder extra(String name, float value) {
-            for (Intent intent : intents) {
-                intent.putExtra(name, value);
-            }
+            extras.put(name, value);
             return this;
         }
 
@@ -324,9 +698,7 @@ class ActivityDoorbell extends Doorbell {
          * @return this
          */
         public Builder extra(String name, double value) {
-            for (Intent intent : intents) {
-                intent.putExtra(name, value);
-            }
+            extras.put(name, value);
             return this;
         }
 
@@ -338,9 +710,7 @@ class ActivityDoorbell extends Doorbell {
          * @return this
          */
         public Builder extra(String name, String value) {
-            for (Intent intent : intents) {
-                intent.putExtra(name, value);
-            }
+            extras.put(name, value);
             return this;
         }
 
@@ -352,9 +722,7 @@ class ActivityDoorbell extends Doorbell {
          * @return this
          */
         public Builder extra(String name, byte[] value) {
-            for (Intent intent : intents) {
-                intent.putExtra(name, value);
-            }
+            extras.put(name, value);
             return this;
         }
 
@@ -366,9 +734,7 @@ class ActivityDoorbell extends Doorbell {
          * @return this
          */
         public Builder extra(String name, int[] value) {
-            for (Intent intent : intents) {
-                intent.putExtra(name, value);
-            }
+            extras.put(name, value);
             return this;
         }
 
@@ -380,9 +746,7 @@ class ActivityDoorbell extends Doorbell {
          * @return this
          */
         public Builder extra(String name, long[] value) {
-            for (Intent intent : intents) {
-                intent.putExtra(name, value);
-            }
+            extras.put(name, value);
             return this;
         }
 
@@ -394,9 +758,7 @@ class ActivityDoorbell extends Doorbell {
          * @return this
          */
         public Builder extra(String name, boolean[] value) {
-            for (Intent intent : intents) {
-                intent.putExtra(name, value);
-            }
+            extras.put(name, value);
             return this;
         }
 
@@ -408,9 +770,7 @@ class ActivityDoorbell extends Doorbell {
          * @return this
          */
         public Builder extra(String name, float[] value) {
-            for (Intent intent : intents) {
-                intent.putExtra(name, value);
-            }
+            extras.put(name, value);
             return this;
         }
 
@@ -422,9 +782,7 @@ class ActivityDoorbell extends Doorbell {
          * @return this
          */
         public Builder extra(String name, double[] value) {
-            for (Intent intent : intents) {
-                intent.putExtra(name, value);
-            }
+            extras.put(name, value);
             return this;
         }
 
@@ -436,9 +794,7 @@ class ActivityDoorbell extends Doorbell {
          * @return this
          */
         public Builder extra(String name, CharSequence[] value) {
-            for (Intent intent : intents) {
-                intent.putExtra(name, value);
-            }
+            extras.put(name, value);
             return this;
         }
 
@@ -450,9 +806,7 @@ class ActivityDoorbell extends Doorbell {
          * @return this
          */
         public Builder extra(String name, String[] value) {
-            for (Intent intent : intents) {
-                intent.putExtra(name, value);
-            }
+            extras.put(name, value);
             return this;
         }
 
@@ -464,9 +818,7 @@ class ActivityDoorbell extends Doorbell {
          * @return this
          */
         public Builder extra(String name, Parcelable value) {
-            for (Intent intent : intents) {
-                intent.putExtra(name, value);
-            }
+            extras.put(name, value);
             return this;
         }
 
@@ -478,9 +830,7 @@ class ActivityDoorbell extends Doorbell {
          * @return this
          */
         public Builder extra(String name, Parcelable[] value) {
-            for (Intent intent : intents) {
-                intent.putExtra(name, value);
-            }
+            extras.put(name, value);
             return this;
         }
 
@@ -492,9 +842,22 @@ class ActivityDoorbell extends Doorbell {
          * @return this
          */
         public Builder extra(String name, Serializable value) {
-            for (Intent intent : intents) {
-                intent.putExtra(name, value);
-            }
+            extras.put(name, value);
+            return this;
+        }
+
+        /**
+         * Puts a payload handed off in the process, only the token of the payload is put into the
+         * intents, so the payload is never marshalled. The payload is stored only when the doorbell
+         * is allowed to ring, and is resolved by {@link Doorbell#getPayload(Intent, String)}.
+         *
+         * @param name    The name of the extra data, with package prefix.
+         * @param payload The payload
+         * @return this
+         * @see PayloadStore
+         */
+        public Builder payload(String name, Object payload) {
+            extras.putPayload(name, payload);
             return this;
         }
 
@@ -508,9 +871,7 @@ class ActivityDoorbell extends Doorbell {
             if (extras == null) {
                 return this;
             }
-            for (Intent intent : intents) {
-                intent.putExtras(extras);
-            }
+            this.extras.putAll(extras);
             return this;
         }
 
@@ -536,6 +897,22 @@ class ActivityDoorbell extends Doorbell {
             return this;
         }
 
+        /**
+         * Starts the activity for result, the listener is notified of the result when the host
+         * forwards it by {@link Doorbell#onActivityResult(int, int, Intent)}. The request code is
+         * allocated for each start and takes precedence over {@link #requestCode(int)}. <br /><br />
+         *
+         * The listener is released when notified, or when the activity or fragment starting the
+         * activity is released, so it never leaks.
+         *
+         * @param listener The listener to be notified of the result
+         * @return this
+         */
+        public Builder forResult(OnResultListener listener) {
+            this.resultListener = requireNonNull(listener, "The result listener must not be null.");
+            return this;
+        }
+
         /**
          * Sets the animation resource to use for the incoming activity.
          *
@@ -569,26 +946,57 @@ class ActivityDoorbell extends Doorbell {
             return this;
         }
 
+        /**
+         * Drops the duplicate rings of the same target from the same activity or fragment within
+         * the given window, e.g. the double taps. The first ringing is never delayed, and only the
+         * rings passing the condition are counted.
+         *
+         * @param window The window to drop the duplicate rings
+         * @param unit   The time unit of the window
+         * @return this
+         */
+        public Builder throttle(long window, TimeUnit unit) {
+            return throttle(window, unit, Clock.SYSTEM);
+        }
+
+        /**
+         * Drops the duplicate rings of the same target from the same activity or fragment within
+         * the given window measured by the given clock.
+         *
+         * @param window The window to drop the duplicate rings
+         * @param unit   The time unit of the window
+         * @param clock  The clock to measure the window
+         * @return this
+         */
+        public Builder throttle(long window, TimeUnit unit, Clock clock) {
+            requireNonNull(unit, "The time unit must not be null.");
+            requireNonNull(clock, "The clock must not be null.");
+            this.throttle = new Throttle(unit.toNanos(window), clock);
+            return this;
+        }
+
         /**
          * Sets the condition of the ringing.
          *
          * @param condition The condition to test
          * @return this
          */
+        @Override
         public Builder condition(boolean condition) {
             super.condition(condition);
             return this;
         }
 
         /**
-         * Sets the condition of the ringing.
+         * Sets the condition of the ringing, the condition will be tested every time the doorbell
+         * rings.
          *
          * @param condition The condition to test
          * @return this
          */
+        @Override
         public Builder condition(Condition condition) {
-            boolean test = condition == null || condition.test();
-            super.condition(test);
+            super.condition(condition);
             return this;
         }
 
@@ -598,26 +1006,85 @@ class ActivityDoorbell extends Doorbell {
             return this;
         }
 
+        /**
+         * Adds an interceptor of the doorbell, which is called after the global interceptors. The
+         * target of the chain is the array of the intents for starting activities.
+         *
+         * @param interceptor The interceptor to add
+         * @return this
+         */
+        @Override
+        public Builder intercept(Interceptor interceptor) {
+            super.intercept(interceptor);
+            return this;
+        }
+
+        /**
+         * Parks the ring for 5 minutes if blocked, the activities will be started without testing
+         * again when {@link Doorbell#resume(Condition)} is called with the door or the condition.
+         *
+         * @return this
+         */
+        public Builder park() {
+            return park(DEFAULT_PARK_MINUTES, TimeUnit.MINUTES);
+        }
+
+        /**
+         * Parks the ring if blocked, the activities will be started without testing again when
+         * {@link Doorbell#resume(Condition)} is called with the door or the condition before the
+         * ring expires.
+         *
+         * @param expiry The time to keep the parked ring
+         * @param unit   The time unit of the expiry
+         * @return this
+         */
+        @Override
+        public Builder park(long expiry, TimeUnit unit) {
+            super.park(expiry, unit);
+            return this;
+        }
+
+        /**
+         * Rings the doorbell asynchronously with the default executor, the activities will be
+         * started on the main thread. The ringing will be cancelled if the starter is released
+         * before the condition is tested.
+         *
+         * @return this
+         */
+        @Override
+        public Builder async() {
+            super.async();
+            return this;
+        }
+
+        /**
+         * Rings the doorbell asynchronously, the activities will be started on the main thread.
+         * The ringing will be cancelled if the starter is released before the condition is tested.
+         *
+         * @param executor The executor to test the condition
+         * @return this
+         */
+        @Override
+        public Builder async(Executor executor) {
+            super.async(executor);
+            return this;
+        }
+
         /**
          * Ring the doorbell.
          */
         public void ring() {
-            ring(new RingListener() {
-                @Override
-                public void onAllow() {
-                    // do nothing
-                }
-
-                @Override
-                public void onBlock() {
-                    // do nothing
-                }
+            ring(LISTENER_NULL);
+        }
 
-                @Override
-                public void onComplete() {
-                    // do nothing
-                }
-            });
+        /**
+         * Compiles the doorbell into a reusable ring plan.
+         *
+         * @return The ring plan
+         * @see RingPlan
+         */
+        public RingPlan plan() {
+            return plan(LISTENER_NULL);
         }
 
         @Override
@@ -625,4 +1092,45 @@ class ActivityDoorbell extends Doorbell {
             return new ActivityDoorbell(this);
         }
     }
+
+    /**
+     * The lifecycle callbacks drop the parked rings of the destroyed activities.
+     */
+    private static final class DestroyCallbacks implements Application.ActivityLifecycleCallbacks {
+
+        @Override
+        public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+            // do nothing
+        }
+
+        @Override
+        public void onActivityStarted(Activity activity) {
+            // do nothing
+        }
+
+        @Override
+        public void onActivityResumed(Activity activity) {
+            // do nothing
+        }
+
+        @Override
+        public void onActivityPaused(Activity activity) {
+            // do nothing
+        }
+
+        @Override
+        public void onActivityStopped(Activity activity) {
+            // do nothing
+        }
+
+        @Override
+        public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+            // do nothing
+        }
+
+        @Override
+        public void onActivityDestroyed(Activity activity) {
+            ParkedRings.releaseCancelled();
+        }
+    }
 }
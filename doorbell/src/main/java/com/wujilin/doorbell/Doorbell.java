@@ -25,10 +25,13 @@ package com.wujilin.doorbell;
 
 import android.app.Activity;
 import android.content.Context;
+import android.content.Intent;
 import android.support.annotation.AnimRes;
 import android.support.v4.app.Fragment;
 
-import static com.wujilin.doorbell.starter.Starters.newStarter;
+import com.wujilin.doorbell.payload.PayloadStore;
+
+import static com.wujilin.doorbell.starter.Starters.getStarter;
 import static com.wujilin.doorbell.util.Objects.requireNonNull;
 
 /**
@@ -37,7 +40,7 @@ import static com.wujilin.doorbell.util.Objects.requireNonNull;
  * @see ActivityDoorbell
  * @see CallbackDoorbell
  */
-public class Doorbell {
+public class Doorbell extends AbstractDoorbell {
 
     /**
      * The transition not set.
@@ -45,24 +48,22 @@ public class Doorbell {
     public static final int TRANSITION_NOT_SET = -1;
 
     /**
-     * The default resource ID of the animation resource to use for the incoming activity
+     * The default resource IDs of the animation resources to use for the incoming activity in the
+     * high bits and the outgoing activity in the low bits, so they are published together
      */
-    private static int defaultEnter;
+    private static volatile long defaultTransition;
 
     /**
-     * The default resource ID of the animation resource to use for the outgoing activity
+     * The store to hand the payloads off
      */
-    private static int defaultExit;
+    private static volatile PayloadStore payloadStore = new PayloadStore();
 
-    /**
-     * The door of the doorbell
-     */
-    private Door door;
-
-    /**
-     * The door get involved
-     */
-    private Door involvedDoor;
+    static {
+        // call the callbacks of the asynchronous ringing on the main thread by default
+        if (getCallbackExecutor() == null) {
+            setCallbackExecutor(new MainThreadExecutor());
+        }
+    }
 
     /**
      * Constructs a new doorbell.
@@ -70,58 +71,7 @@ public class Doorbell {
      * @param builder The builder to build the doorbell
      */
     protected Doorbell(Builder builder) {
-        this.door         = builder.door;
-        this.involvedDoor = builder.involvedDoor;
-    }
-
-    /**
-     * Ring the doorbell.
-     */
-    private void ring() {
-        if (!door.test()) {
-            callOnBlock();
-            return;
-        }
-        callOnAllow();
-        callOnComplete();
-    }
-
-    /**
-     * Calls the onBlock callbacks.
-     */
-    private void callOnBlock() {
-        if (involvedDoor != null) {
-            involvedDoor.onBlock();
-        }
-        door.onBlock();
-    }
-
-    /**
-     * Calls the onAllow callbacks.
-     */
-    private void callOnAllow() {
-        if (involvedDoor != null) {
-            involvedDoor.onAllow();
-        }
-        door.onAllow();
-        onAllow();
-    }
-
-    /**
-     * Calls the onComplete callbacks.
-     */
-    private void callOnComplete() {
-        if (involvedDoor != null) {
-            involvedDoor.onComplete();
-        }
-        door.onComplete();
-    }
-
-    /**
-     * Called when this doorbell is allowed to ring.
-     */
-    protected void onAllow() {
-        // do nothing
+        super(builder);
     }
 
     /**
@@ -131,7 +81,7 @@ public class Doorbell {
      * @return The builder of the activity doorbell
      */
     public static ActivityDoorbell.Builder with(Context context) {
-        return with(newStarter(context));
+        return with(getStarter(context));
     }
 
     /**
@@ -141,7 +91,7 @@ public class Doorbell {
      * @return The builder of the activity doorbell
      */
     public static ActivityDoorbell.Builder with(Activity activity) {
-        return with(newStarter(activity));
+        return with(getStarter(activity));
     }
 
     /**
@@ -151,7 +101,7 @@ public class Doorbell {
      * @return The builder of the activity doorbell
      */
     public static ActivityDoorbell.Builder with(Fragment fragment) {
-        return with(newStarter(fragment));
+        return with(getStarter(fragment));
     }
 
     /**
@@ -171,7 +121,7 @@ public class Doorbell {
      * @return The builder of the callback doorbell
      */
     public static CallbackDoorbell.Builder create(boolean condition) {
-        return new CallbackDoorbell.Builder(condition);
+        return AbstractDoorbell.create(condition);
     }
 
     /**
@@ -181,7 +131,7 @@ public class Doorbell {
      * @return The builder of the callback doorbell
      */
     public static CallbackDoorbell.Builder create(Condition condition) {
-        return new CallbackDoorbell.Builder(condition);
+        return AbstractDoorbell.create(condition);
     }
 
     /**
@@ -191,26 +141,66 @@ public class Doorbell {
      * @return The builder of the callback doorbell
      */
     public static CallbackDoorbell.Builder create(Door door) {
-        return new CallbackDoorbell.Builder(door);
+        return AbstractDoorbell.create(door);
     }
 
     /**
-     * Ring the door.
+     * Forwards the result of an activity started by a doorbell for result, called by
+     * <code>onActivityResult()</code> of the activities or fragments. The request codes from
+     * <code>0xF000</code> to <code>0xFFFF</code> are reserved for the doorbells.
      *
-     * @param door The door to ring
-     * @return <code>true</code> if the condition of the given door is passed, otherwise <code>false</code>.
+     * @param requestCode The request code
+     * @param resultCode  The result code
+     * @param data        The data returned
+     * @return <code>true</code> if the result is dispatched to a listener, otherwise <code>false</code>.
      */
-    public static boolean ring(Door door) {
-        if (door == null) {
-            return false;
-        }
-        if (door.test()) {
-            door.onAllow();
-            door.onComplete();
-            return true;
+    public static boolean onActivityResult(int requestCode, int resultCode, Intent data) {
+        return ResultRegistry.dispatch(requestCode, resultCode, data);
+    }
+
+    /**
+     * Releases the result listeners of the activity or fragment, e.g. in <code>onDestroy()</code>.
+     * The listeners of the finishing or collected hosts are released automatically.
+     *
+     * @param host The activity or fragment
+     * @return The number of the listeners released
+     */
+    public static int releaseResults(Object host) {
+        return ResultRegistry.release(host);
+    }
+
+    /**
+     * Resolves the payload handed off by {@link ActivityDoorbell.Builder#payload(String, Object)}.
+     *
+     * @param intent The intent received
+     * @param name   The name of the extra data
+     * @param <T>    The type of the payload
+     * @return The payload, or <code>null</code> if not found or evicted
+     */
+    public static <T> T getPayload(Intent intent, String name) {
+        if (intent == null) {
+            return null;
         }
-        door.onBlock();
-        return false;
+        return getPayloadStore().get(intent.getLongExtra(name, PayloadStore.NO_TOKEN));
+    }
+
+    /**
+     * Returns the store to hand the payloads off.
+     *
+     * @return The payload store
+     */
+    public static PayloadStore getPayloadStore() {
+        return payloadStore;
+    }
+
+    /**
+     * Setup the store to hand the payloads off, e.g. a store spilling to a file in the cache
+     * directory, so the payloads survive the process death.
+     *
+     * @param store The payload store
+     */
+    public static void setPayloadStore(PayloadStore store) {
+        payloadStore = requireNonNull(store, "The payload store must not be null.");
     }
 
     /**
@@ -219,7 +209,7 @@ public class Doorbell {
      * @return The resource ID of the animation resource to use for the incoming activity.
      */
     public static int getDefaultEnter() {
-        return defaultEnter;
+        return (int) (defaultTransition >>> 32);
     }
 
     /**
@@ -228,7 +218,7 @@ public class Doorbell {
      * @return The resource ID of the animation resource to use for the outgoing activity.
      */
     public static int getDefaultExit() {
-        return defaultExit;
+        return (int) defaultTransition;
     }
 
     /**
@@ -238,143 +228,6 @@ public class Doorbell {
      * @param exit  The resource ID of the animation resource to use for the outgoing activity.
      */
     public static void setDefaultTransition(@AnimRes final int enter, @AnimRes final int exit) {
-        defaultEnter = enter;
-        defaultExit  = exit;
-    }
-
-    /**
-     * The builder class to build the doorbell.
-     */
-    public abstract static class Builder {
-
-        /**
-         * The condition of the ring
-         */
-        private boolean condition = true;
-
-        /**
-         * The door for the doorbell
-         */
-        private Door door;
-
-        /**
-         * The door get involved
-         */
-        private Door involvedDoor;
-
-        /**
-         * Sets the condition of the ringing.
-         *
-         * @param condition The condition to test
-         * @return this
-         */
-        protected Builder condition(boolean condition) {
-            this.condition = condition;
-            return this;
-        }
-
-        /**
-         * Sets the door to get involved.
-         *
-         * @param door The involved door
-         * @return this
-         */
-        protected Builder door(Door door) {
-            this.involvedDoor = door;
-            return this;
-        }
-
-        /**
-         * Ring the doorbell.
-         *
-         * @param listener The listener to be notified when blocked
-         */
-        public void ring(final OnBlockListener listener) {
-            requireNonNull(listener, "The on block listener must not be null.");
-            ring(new RingListener() {
-                @Override
-                public void onAllow() {
-                    // do nothing
-                }
-
-                @Override
-                public void onBlock() {
-                    listener.onBlock();
-                }
-
-                @Override
-                public void onComplete() {
-                    // do nothing
-                }
-            });
-        }
-
-        /**
-         * Ring the doorbell.
-         *
-         * @param listener The listener to be notified when allowed
-         */
-        public void ring(final OnAllowListener listener) {
-            requireNonNull(listener, "The on test listener must not be null.");
-            ring(new RingListener() {
-                @Override
-                public void onAllow() {
-                    listener.onAllow();
-                }
-
-                @Override
-                public void onBlock() {
-                    // do nothing
-                }
-
-                @Override
-                public void onComplete() {
-                    // do nothing
-                }
-            });
-        }
-
-        /**
-         * Ring the doorbell.
-         *
-         * @param listener The listener to be notified when ringing
-         */
-        public final void ring(final RingListener listener) {
-            requireNonNull(listener, "The ring listener must not be null.");
-            if (involvedDoor != null) {
-                condition = involvedDoor.test();
-            }
-            this.door = new Door() {
-                @Override
-                public boolean test() {
-                    return condition;
-                }
-
-                @Override
-                public void onAllow() {
-                    listener.onAllow();
-                }
-
-                @Override
-                public void onBlock() {
-                    listener.onBlock();
-                }
-
-                @Override
-                public void onComplete() {
-                    listener.onComplete();
-                }
-            };
-
-            // build the doorbell and ring it
-            build().ring();
-        }
-
-        /**
-         * Builds the doorbell.
-         *
-         * @return The doorbell
-         */
-        protected abstract Doorbell build();
+        defaultTransition = (long) enter << 32 | exit & 0xFFFFFFFFL;
     }
 }
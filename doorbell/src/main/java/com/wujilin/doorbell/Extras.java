@@ -0,0 +1,476 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.os.Parcelable;
+
+import com.wujilin.doorbell.payload.PayloadStore;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import static com.wujilin.doorbell.Doorbell.getPayloadStore;
+import static com.wujilin.doorbell.payload.PayloadStore.NO_TOKEN;
+
+/**
+ * The class records the extras of the activity doorbell, and puts them into the intents only when
+ * the doorbell is allowed to ring. <br /><br />
+ *
+ * The primitive values are recorded as raw bits without boxing. The extras are put into a single
+ * bundle sized once, which is put into each intent by one {@link Intent#putExtras(Bundle)} call.
+ * The payloads are put into the payload store by {@link #putPayloads(Intent[])} for each allowed
+ * ring, so the payloads of the blocked or throttled rings are never stored, and a payload evicted
+ * from the store is stored again for the next ring.
+ */
+final class Extras {
+
+    /**
+     * The types of the extras
+     */
+    private static final int TYPE_BOOLEAN             = 0;
+    private static final int TYPE_INT                 = 1;
+    private static final int TYPE_LONG                = 2;
+    private static final int TYPE_FLOAT               = 3;
+    private static final int TYPE_DOUBLE              = 4;
+    private static final int TYPE_STRING              = 5;
+    private static final int TYPE_BYTE_ARRAY          = 6;
+    private static final int TYPE_INT_ARRAY           = 7;
+    private static final int TYPE_LONG_ARRAY          = 8;
+    private static final int TYPE_BOOLEAN_ARRAY       = 9;
+    private static final int TYPE_FLOAT_ARRAY         = 10;
+    private static final int TYPE_DOUBLE_ARRAY        = 11;
+    private static final int TYPE_CHAR_SEQUENCE_ARRAY = 12;
+    private static final int TYPE_STRING_ARRAY        = 13;
+    private static final int TYPE_PARCELABLE          = 14;
+    private static final int TYPE_PARCELABLE_ARRAY    = 15;
+    private static final int TYPE_SERIALIZABLE        = 16;
+    private static final int TYPE_BUNDLE              = 17;
+    private static final int TYPE_PAYLOAD             = 18;
+
+    /**
+     * The initial capacity of the extras
+     */
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * The types of the extras
+     */
+    private int[] types = new int[INITIAL_CAPACITY];
+
+    /**
+     * The names of the extras, <code>null</code> for the bundles
+     */
+    private String[] names = new String[INITIAL_CAPACITY];
+
+    /**
+     * The raw bits of the primitive values of the extras
+     */
+    private long[] primitives = new long[INITIAL_CAPACITY];
+
+    /**
+     * The object values of the extras
+     */
+    private Object[] objects = new Object[INITIAL_CAPACITY];
+
+    /**
+     * The number of the extras
+     */
+    private int size;
+
+    /**
+     * The tokens of the payloads stored for the rings, indexed as the extras, created when a
+     * payload is stored for the first time and never copied
+     */
+    private long[] tokens;
+
+    /**
+     * Records a boolean extra.
+     *
+     * @param name  The name of the extra data, with package prefix.
+     * @param value The data value
+     */
+    void put(String name, boolean value) {
+        add(TYPE_BOOLEAN, name, value ? 1 : 0);
+    }
+
+    /**
+     * Records a int extra.
+     *
+     * @param name  The name of the extra data, with package prefix.
+     * @param value The data value
+     */
+    void put(String name, int value) {
+        add(TYPE_INT, name, value);
+    }
+
+    /**
+     * Records a long extra.
+     *
+     * @param name  The name of the extra data, with package prefix.
+     * @param value The data value
+     */
+    void put(String name, long value) {
+        add(TYPE_LONG, name, value);
+    }
+
+    /**
+     * Records a float extra.
+     *
+     * @param name  The name of the extra data, with package prefix.
+     * @param value The data value
+     */
+    void put(String name, float value) {
+        add(TYPE_FLOAT, name, Float.floatToRawIntBits(value));
+    }
+
+    /**
+     * Records a double extra.
+     *
+     * @param name  The name of the extra data, with package prefix.
+     * @param value The data value
+     */
+    void put(String name, double value) {
+        add(TYPE_DOUBLE, name, Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * Records a string extra.
+     *
+     * @param name  The name of the extra data, with package prefix.
+     * @param value The data value
+     */
+    void put(String name, String value) {
+        add(TYPE_STRING, name, value);
+    }
+
+    /**
+     * Records a byte array extra.
+     *
+     * @param name  The name of the extra data, with package prefix.
+     * @param value The data value
+     */
+    void put(String name, byte[] value) {
+        add(TYPE_BYTE_ARRAY, name, value);
+    }
+
+    /**
+     * Records a int array extra.
+     *
+     * @param name  The name of the extra data, with package prefix.
+     * @param value The data value
+     */
+    void put(String name, int[] value) {
+        add(TYPE_INT_ARRAY, name, value);
+    }
+
+    /**
+     * Records a long array extra.
+     *
+     * @param name  The name of the extra data, with package prefix.
+     * @param value The data value
+     */
+    void put(String name, long[] value) {
+        add(TYPE_LONG_ARRAY, name, value);
+    }
+
+    /**
+     * Records a boolean array extra.
+     *
+     * @param name  The name of the extra data, with package prefix.
+     * @param value The data value
+     */
+    void put(String name, boolean[] value) {
+        add(TYPE_BOOLEAN_ARRAY, name, value);
+    }
+
+    /**
+     * Records a float array extra.
+     *
+     * @param name  The name of the extra data, with package prefix.
+     * @param value The data value
+     */
+    void put(String name, float[] value) {
+        add(TYPE_FLOAT_ARRAY, name, value);
+    }
+
+    /**
+     * Records a double array extra.
+     *
+     * @param name  The name of the extra data, with package prefix.
+     * @param value The data value
+     */
+    void put(String name, double[] value) {
+        add(TYPE_DOUBLE_ARRAY, name, value);
+    }
+
+    /**
+     * Records a char sequence array extra.
+     *
+     * @param name  The name of the extra data, with package prefix.
+     * @param value The data value
+     */
+    void put(String name, CharSequence[] value) {
+        add(TYPE_CHAR_SEQUENCE_ARRAY, name, value);
+    }
+
+    /**
+     * Records a string array extra.
+     *
+     * @param name  The name of the extra data, with package prefix.
+     * @param value The data value
+     */
+    void put(String name, String[] value) {
+        add(TYPE_STRING_ARRAY, name, value);
+    }
+
+    /**
+     * Records a parcelable extra.
+     *
+     * @param name  The name of the extra data, with package prefix.
+     * @param value The data value
+     */
+    void put(String name, Parcelable value) {
+        add(TYPE_PARCELABLE, name, value);
+    }
+
+    /**
+     * Records a parcelable array extra.
+     *
+     * @param name  The name of the extra data, with package prefix.
+     * @param value The data value
+     */
+    void put(String name, Parcelable[] value) {
+        add(TYPE_PARCELABLE_ARRAY, name, value);
+    }
+
+    /**
+     * Records a serializable extra.
+     *
+     * @param name  The name of the extra data, with package prefix.
+     * @param value The data value
+     */
+    void put(String name, Serializable value) {
+        add(TYPE_SERIALIZABLE, name, value);
+    }
+
+    /**
+     * Records a payload extra, the token of the payload is put into the intents.
+     *
+     * @param name    The name of the extra data, with package prefix.
+     * @param payload The payload
+     */
+    void putPayload(String name, Object payload) {
+        add(TYPE_PAYLOAD, name, payload);
+    }
+
+    /**
+     * Records a bundle of extras.
+     *
+     * @param extras The extras
+     */
+    void putAll(Bundle extras) {
+        add(TYPE_BUNDLE, null, extras);
+    }
+
+    /**
+     * Puts the payloads into the payload store and their tokens into the intents for an allowed
+     * ring. The token stored for the previous ring is reused while the store still resolves it,
+     * otherwise the payload is stored again, e.g. evicted or the store replaced.
+     *
+     * @param intents The intents to start
+     */
+    synchronized void putPayloads(Intent[] intents) {
+        PayloadStore store = null;
+        for (int i = 0; i < size; i++) {
+            if (types[i] != TYPE_PAYLOAD) {
+                continue;
+            }
+            if (store == null) {
+                store = getPayloadStore();
+            }
+            if (tokens == null) {
+                tokens = new long[size];
+            }
+            long token = tokens[i];
+            if (token == NO_TOKEN || !store.contains(token)) {
+                token     = store.put(objects[i]);
+                tokens[i] = token;
+            }
+            for (Intent intent : intents) {
+                intent.putExtra(names[i], token);
+            }
+        }
+    }
+
+    /**
+     * Creates a snapshot of the extras, the bundles of extras are copied too.
+     *
+     * @return The copy of the extras
+     */
+    Extras copy() {
+        int capacity    = Math.max(size, INITIAL_CAPACITY);
+        Extras copy     = new Extras();
+        copy.types      = Arrays.copyOf(types, capacity);
+        copy.names      = Arrays.copyOf(names, capacity);
+        copy.primitives = Arrays.copyOf(primitives, capacity);
+        copy.objects    = Arrays.copyOf(objects, capacity);
+        copy.size       = size;
+        for (int i = 0; i < size; i++) {
+            if (types[i] == TYPE_BUNDLE) {
+                copy.objects[i] = new Bundle((Bundle) objects[i]);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Test if no extras recorded.
+     *
+     * @return <code>true</code> if empty, otherwise <code>false</code>.
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Creates a bundle of the extras in the order of recording.
+     *
+     * @return The bundle of the extras
+     */
+    Bundle toBundle() {
+        Bundle bundle = new Bundle(size);
+        for (int i = 0; i < size; i++) {
+            String name  = names[i];
+            Object value = objects[i];
+            switch (types[i]) {
+                case TYPE_BOOLEAN:
+                    bundle.putBoolean(name, primitives[i] != 0);
+                    break;
+                case TYPE_INT:
+                    bundle.putInt(name, (int) primitives[i]);
+                    break;
+                case TYPE_LONG:
+                    bundle.putLong(name, primitives[i]);
+                    break;
+                case TYPE_FLOAT:
+                    bundle.putFloat(name, Float.intBitsToFloat((int) primitives[i]));
+                    break;
+                case TYPE_DOUBLE:
+                    bundle.putDouble(name, Double.longBitsToDouble(primitives[i]));
+                    break;
+                case TYPE_STRING:
+                    bundle.putString(name, (String) value);
+                    break;
+                case TYPE_BYTE_ARRAY:
+                    bundle.putByteArray(name, (byte[]) value);
+                    break;
+                case TYPE_INT_ARRAY:
+                    bundle.putIntArray(name, (int[]) value);
+                    break;
+                case TYPE_LONG_ARRAY:
+                    bundle.putLongArray(name, (long[]) value);
+                    break;
+                case TYPE_BOOLEAN_ARRAY:
+                    bundle.putBooleanArray(name, (boolean[]) value);
+                    break;
+                case TYPE_FLOAT_ARRAY:
+                    bundle.putFloatArray(name, (float[]) value);
+                    break;
+                case TYPE_DOUBLE_ARRAY:
+                    bundle.putDoubleArray(name, (double[]) value);
+                    break;
+                case TYPE_CHAR_SEQUENCE_ARRAY:
+                    bundle.putCharSequenceArray(name, (CharSequence[]) value);
+                    break;
+                case TYPE_STRING_ARRAY:
+                    bundle.putStringArray(name, (String[]) value);
+                    break;
+                case TYPE_PARCELABLE:
+                    bundle.putParcelable(name, (Parcelable) value);
+                    break;
+                case TYPE_PARCELABLE_ARRAY:
+                    bundle.putParcelableArray(name, (Parcelable[]) value);
+                    break;
+                case TYPE_SERIALIZABLE:
+                    bundle.putSerializable(name, (Serializable) value);
+                    break;
+                case TYPE_BUNDLE:
+                    bundle.putAll((Bundle) value);
+                    break;
+                case TYPE_PAYLOAD:
+                    // put into the intents for each ring by putPayloads
+                    break;
+                default:
+                    break;
+            }
+        }
+        return bundle;
+    }
+
+    /**
+     * Records a primitive extra.
+     *
+     * @param type  The type of the extra
+     * @param name The name of the extra
+     * @param bits The raw bits of the value of the extra
+     */
+    private void add(int type, String name, long bits) {
+        int index         = next(type, name);
+        primitives[index] = bits;
+    }
+
+    /**
+     * Records an object extra.
+     *
+     * @param type  The type of the extra
+     * @param name  The name of the extra
+     * @param value The value of the extra
+     */
+    private void add(int type, String name, Object value) {
+        int index      = next(type, name);
+        objects[index] = value;
+    }
+
+    /**
+     * Allocates the next extra.
+     *
+     * @param type The type of the extra
+     * @param name The name of the extra
+     * @return The index of the extra
+     */
+    private int next(int type, String name) {
+        if (size == types.length) {
+            int capacity = size * 2;
+            types        = Arrays.copyOf(types, capacity);
+            names        = Arrays.copyOf(names, capacity);
+            primitives   = Arrays.copyOf(primitives, capacity);
+            objects      = Arrays.copyOf(objects, capacity);
+        }
+        types[size] = type;
+        names[size] = name;
+        return size++;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.wujilin.doorbell.util.BatchingExecutor;
+
+import java.util.concurrent.Executor;
+
+/**
+ * The executor runs the tasks on the main thread, a burst of tasks is run by a single message of
+ * the main looper, including the tasks submitted while the message runs.
+ */
+class MainThreadExecutor implements Executor {
+
+    /**
+     * The handler of the main looper
+     */
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    /**
+     * The executor batching the tasks into the messages of the handler
+     */
+    private final Executor batching = new BatchingExecutor(new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            handler.post(command);
+        }
+    });
+
+    @Override
+    public void execute(Runnable command) {
+        batching.execute(command);
+    }
+
+    /**
+     * Test if the current thread is the main thread.
+     *
+     * @return <code>true</code> if on the main thread, otherwise <code>false</code>.
+     */
+    static boolean isMainThread() {
+        return Looper.myLooper() == Looper.getMainLooper();
+    }
+}
@@ -0,0 +1,302 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Intent;
+import android.os.Bundle;
+
+import com.wujilin.doorbell.starter.AbstractStarter;
+import com.wujilin.doorbell.util.IntObjectMap;
+
+import java.util.BitSet;
+
+import static android.os.Build.VERSION.SDK_INT;
+import static android.os.Build.VERSION_CODES.ICE_CREAM_SANDWICH;
+
+/**
+ * The registry of the result listeners keyed by the request codes allocated for them. <br /><br />
+ *
+ * The request codes are allocated from a bitset in a range reserved for the doorbells, so they
+ * never collide with each other. A listener is released when its result is dispatched, when its
+ * host is released, e.g. the activity is finishing, destroyed or collected, or when its host is
+ * released explicitly. <br /><br />
+ *
+ * The listeners usually reference their hosts, so they are released as soon as the activities are
+ * destroyed, including by a configuration change, through the activity lifecycle callbacks of the
+ * application where available, rather than when the next listener is registered.
+ */
+final class ResultRegistry {
+
+    /**
+     * The first request code reserved, the request codes must fit in 16 bits for the fragments
+     */
+    static final int FIRST_REQUEST_CODE = 0xF000;
+
+    /**
+     * The number of the request codes reserved
+     */
+    static final int REQUEST_CODE_COUNT = 0x1000;
+
+    /**
+     * The request codes allocated
+     */
+    private static final BitSet ALLOCATED = new BitSet(REQUEST_CODE_COUNT);
+
+    /**
+     * The registrations keyed by the request codes
+     */
+    private static final IntObjectMap<Registration> REGISTRATIONS = new IntObjectMap<>();
+
+    /**
+     * Whether the lifecycle callbacks are registered to the application
+     */
+    private static boolean watching;
+
+    /**
+     * Preventing from constructing.
+     */
+    private ResultRegistry() {
+    }
+
+    /**
+     * Registers the result listener of the starter.
+     *
+     * @param starter  The starter to start the activity
+     * @param listener The result listener
+     * @return The request code allocated
+     * @throws IllegalStateException If all of the request codes are allocated
+     */
+    static synchronized int register(Starter starter, OnResultListener listener) {
+        expunge();
+        watch(starter.getActivity());
+        int index = ALLOCATED.nextClearBit(0);
+        if (index >= REQUEST_CODE_COUNT) {
+            throw new IllegalStateException("Too many activities started for result.");
+        }
+        int requestCode = FIRST_REQUEST_CODE + index;
+        ALLOCATED.set(index);
+        REGISTRATIONS.put(requestCode, new Registration(starter, listener));
+        return requestCode;
+    }
+
+    /**
+     * Dispatches the result to the listener of the request code and releases the listener.
+     *
+     * @param requestCode The request code
+     * @param resultCode  The result code
+     * @param data        The data returned
+     * @return <code>true</code> if dispatched, otherwise <code>false</code>.
+     */
+    static boolean dispatch(int requestCode, int resultCode, Intent data) {
+        Registration registration;
+        synchronized (ResultRegistry.class) {
+            registration = release(requestCode);
+        }
+        if (registration == null) {
+            return false;
+        }
+        registration.listener.onResult(resultCode, data);
+        return true;
+    }
+
+    /**
+     * Releases the listeners of the host.
+     *
+     * @param host The activity or fragment
+     * @return The number of the listeners released
+     */
+    static synchronized int release(Object host) {
+        int released = 0;
+        for (int index = ALLOCATED.nextSetBit(0); index >= 0; index = ALLOCATED.nextSetBit(index + 1)) {
+            int requestCode           = FIRST_REQUEST_CODE + index;
+            Registration registration = REGISTRATIONS.get(requestCode);
+            if (registration.isHostedBy(host)) {
+                release(requestCode);
+                released++;
+            }
+        }
+        return released;
+    }
+
+    /**
+     * Releases the listeners hosted in the destroyed activity and the listeners whose hosts are
+     * released.
+     *
+     * @param activity The activity destroyed
+     */
+    static synchronized void releaseDestroyed(Activity activity) {
+        for (int index = ALLOCATED.nextSetBit(0); index >= 0; index = ALLOCATED.nextSetBit(index + 1)) {
+            int requestCode           = FIRST_REQUEST_CODE + index;
+            Registration registration = REGISTRATIONS.get(requestCode);
+            if (registration.isHostedIn(activity) || registration.isReleased()) {
+                release(requestCode);
+            }
+        }
+    }
+
+    /**
+     * Registers the lifecycle callbacks to the application of the activity if not registered.
+     *
+     * @param activity The activity of the starter, or <code>null</code> if gone
+     */
+    private static void watch(Activity activity) {
+        if (watching || activity == null || SDK_INT < ICE_CREAM_SANDWICH) {
+            return;
+        }
+        Application application = activity.getApplication();
+        if (application != null) {
+            application.registerActivityLifecycleCallbacks(new DestroyCallbacks());
+            watching = true;
+        }
+    }
+
+    /**
+     * Releases the listeners whose hosts are released.
+     */
+    private static void expunge() {
+        for (int index = ALLOCATED.nextSetBit(0); index >= 0; index = ALLOCATED.nextSetBit(index + 1)) {
+            int requestCode = FIRST_REQUEST_CODE + index;
+            if (REGISTRATIONS.get(requestCode).isReleased()) {
+                release(requestCode);
+            }
+        }
+    }
+
+    /**
+     * Releases the listener of the request code.
+     *
+     * @param requestCode The request code
+     * @return The registration released, or <code>null</code> if not registered
+     */
+    private static Registration release(int requestCode) {
+        Registration registration = REGISTRATIONS.remove(requestCode);
+        if (registration != null) {
+            ALLOCATED.clear(requestCode - FIRST_REQUEST_CODE);
+        }
+        return registration;
+    }
+
+    /**
+     * The class represents a result listener registered.
+     */
+    private static final class Registration {
+
+        /**
+         * The starter started the activity
+         */
+        final Starter starter;
+
+        /**
+         * The result listener
+         */
+        final OnResultListener listener;
+
+        /**
+         * Constructs a new registration.
+         *
+         * @param starter  The starter started the activity
+         * @param listener The result listener
+         */
+        Registration(Starter starter, OnResultListener listener) {
+            this.starter  = starter;
+            this.listener = listener;
+        }
+
+        /**
+         * Test if the host of the starter is released.
+         *
+         * @return <code>true</code> if released, otherwise <code>false</code>.
+         */
+        boolean isReleased() {
+            return starter instanceof AbstractStarter && ((AbstractStarter<?>) starter).isReleased();
+        }
+
+        /**
+         * Test if the starter is hosted in the given activity, by the activity itself or by one of
+         * its fragments.
+         *
+         * @param activity The activity
+         * @return <code>true</code> if hosted, otherwise <code>false</code>.
+         */
+        boolean isHostedIn(Activity activity) {
+            return starter.getActivity() == activity || isHostedBy(activity);
+        }
+
+        /**
+         * Test if the starter is hosted by the given host.
+         *
+         * @param host The activity or fragment
+         * @return <code>true</code> if hosted, otherwise <code>false</code>.
+         */
+        boolean isHostedBy(Object host) {
+            if (starter instanceof AbstractStarter) {
+                return ((AbstractStarter<?>) starter).getStarter() == host;
+            }
+            return starter == host;
+        }
+    }
+
+    /**
+     * The lifecycle callbacks release the listeners of the destroyed activities.
+     */
+    private static final class DestroyCallbacks implements Application.ActivityLifecycleCallbacks {
+
+        @Override
+        public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+            // do nothing
+        }
+
+        @Override
+        public void onActivityStarted(Activity activity) {
+            // do nothing
+        }
+
+        @Override
+        public void onActivityResumed(Activity activity) {
+            // do nothing
+        }
+
+        @Override
+        public void onActivityPaused(Activity activity) {
+            // do nothing
+        }
+
+        @Override
+        public void onActivityStopped(Activity activity) {
+            // do nothing
+        }
+
+        @Override
+        public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+            // do nothing
+        }
+
+        @Override
+        public void onActivityDestroyed(Activity activity) {
+            releaseDestroyed(activity);
+        }
+    }
+}
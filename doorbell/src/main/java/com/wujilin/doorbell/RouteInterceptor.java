@@ -0,0 +1,66 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell;
+
+/**
+ * The interceptor to test the doors required by a route before the doorbell. <br /><br />
+ *
+ * The doors are tested in order, the ringing is blocked by the first door blocked and only the
+ * onBlock callback of that door is called. If all of the doors pass and the rest of the chain
+ * passes too, the onAllow and onComplete callbacks of the doors are called. The interceptor only
+ * records the results on the chain, the callbacks are called when the result is delivered, e.g. on
+ * the main thread after an asynchronous test, and never if the ringing is cancelled.
+ */
+class RouteInterceptor implements Interceptor {
+
+    /**
+     * The doors required by the route
+     */
+    private final Door[] doors;
+
+    /**
+     * Constructs a new route interceptor.
+     *
+     * @param doors The doors required by the route
+     */
+    RouteInterceptor(Door[] doors) {
+        this.doors = doors;
+    }
+
+    @Override
+    public boolean intercept(Chain chain) {
+        RingChain ringChain = (RingChain) chain;
+        for (Door door : doors) {
+            if (!door.test()) {
+                ringChain.block(door);
+                return false;
+            }
+        }
+        if (!chain.proceed()) {
+            return false;
+        }
+        ringChain.pass(doors);
+        return true;
+    }
+}
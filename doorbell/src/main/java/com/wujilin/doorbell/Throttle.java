@@ -0,0 +1,87 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell;
+
+import com.wujilin.doorbell.util.Clock;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * The class records the last ringing time of each target per starter to drop the duplicate rings.
+ * Only the rings passing the condition are recorded.
+ */
+final class Throttle {
+
+    /**
+     * The last ringing times of the targets keyed by the starters, the starters are weakly held
+     */
+    private static final Map<Object, Map<String, Long>> TIMES = new WeakHashMap<>();
+
+    /**
+     * The window to drop the duplicate rings in nanoseconds
+     */
+    private final long windowNanos;
+
+    /**
+     * The clock to measure the window
+     */
+    private final Clock clock;
+
+    /**
+     * Constructs a new throttle.
+     *
+     * @param windowNanos The window to drop the duplicate rings in nanoseconds
+     * @param clock       The clock to measure the window
+     */
+    Throttle(long windowNanos, Clock clock) {
+        this.windowNanos = windowNanos;
+        this.clock       = clock;
+    }
+
+    /**
+     * Records the ringing of the given target if not rung within the window.
+     *
+     * @param starter The starter to start the target
+     * @param target  The target to start
+     * @return <code>true</code> if recorded, otherwise <code>false</code> if the ringing should be dropped.
+     */
+    boolean tryAcquire(Object starter, String target) {
+        long now = clock.nanoTime();
+        synchronized (TIMES) {
+            Map<String, Long> times = TIMES.get(starter);
+            if (times == null) {
+                times = new HashMap<>();
+                TIMES.put(starter, times);
+            }
+            Long last = times.get(target);
+            if (last != null && now - last < windowNanos) {
+                return false;
+            }
+            times.put(target, now);
+            return true;
+        }
+    }
+}
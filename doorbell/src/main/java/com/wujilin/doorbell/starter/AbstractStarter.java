@@ -56,10 +56,24 @@ public abstract class AbstractStarter<T> implements Starter {
     private WeakReference<T> starterReference;
 
     /**
-     * The default constructor.
+     * Whether the default transition is used
+     */
+    private final boolean defaultTransition;
+
+    /**
+     * The time in nanoseconds the starter first observed its object released, <code>0</code> if
+     * not yet, recorded only when the diagnostics is enabled
+     */
+    private volatile long releasedAt;
+
+    /**
+     * Constructs a starter with the default transition, the default transition is read when
+     * starting activities.
+     *
+     * @param starter The starter to start activity
      */
     public AbstractStarter(T starter) {
-        this(starter, getDefaultEnter(), getDefaultExit());
+        this(starter, getDefaultEnter(), getDefaultExit(), true);
     }
 
     /**
@@ -70,15 +84,34 @@ public abstract class AbstractStarter<T> implements Starter {
      * @param exitId  A resource ID of the animation resource to use for the outgoing activity
      */
     public AbstractStarter(T starter, int enterId, int exitId) {
-        starterReference = new WeakReference<>(starter);
-        this.enterId     = enterId;
-        this.exitId      = exitId;
+        this(starter, enterId, exitId, false);
+    }
+
+    /**
+     * Constructs a starter.
+     *
+     * @param starter           The starter to start activity
+     * @param enterId           A resource ID of the animation resource to use for the incoming activity
+     * @param exitId            A resource ID of the animation resource to use for the outgoing activity
+     * @param defaultTransition Whether the default transition is used
+     */
+    private AbstractStarter(T starter, int enterId, int exitId, boolean defaultTransition) {
+        starterReference       = new WeakReference<>(starter);
+        this.enterId           = enterId;
+        this.exitId            = exitId;
+        this.defaultTransition = defaultTransition;
+        if (StarterDiagnostics.isEnabled()) {
+            StarterDiagnostics.track(this, starter);
+        }
     }
 
     @Override
     public final void startActivity(Intent intent, Bundle options) {
         T starter = starterReference.get();
         if (starter == null) {
+            if (StarterDiagnostics.isEnabled()) {
+                StarterDiagnostics.dropped(this);
+            }
             return;
         }
         startActivity(starter, intent, options);
@@ -88,6 +121,9 @@ public abstract class AbstractStarter<T> implements Starter {
     public final void startActivityForResult(Intent intent, int requestCode, Bundle options) {
         T starter = starterReference.get();
         if (starter == null) {
+            if (StarterDiagnostics.isEnabled()) {
+                StarterDiagnostics.dropped(this);
+            }
             return;
         }
         startActivityForResult(starter, intent, requestCode, options);
@@ -97,6 +133,9 @@ public abstract class AbstractStarter<T> implements Starter {
     public final void startActivities(Intent[] intents, Bundle options) {
         T starter = starterReference.get();
         if (starter == null) {
+            if (StarterDiagnostics.isEnabled()) {
+                StarterDiagnostics.dropped(this);
+            }
             return;
         }
         startActivities(starter, intents, options);
@@ -120,14 +159,58 @@ public abstract class AbstractStarter<T> implements Starter {
         }
     }
 
+    /**
+     * Returns the object to start activities, such as the activity or the fragment.
+     *
+     * @return The object to start activities, or <code>null</code> if garbage collected
+     */
+    @Nullable
+    public final T getStarter() {
+        return starterReference.get();
+    }
+
+    /**
+     * Test if the starter is released, that is the activity or fragment has been garbage collected
+     * or is going away.
+     *
+     * @return <code>true</code> if released, otherwise <code>false</code>.
+     */
+    public boolean isReleased() {
+        T starter        = starterReference.get();
+        boolean released = starter == null || isReleased(starter);
+        if (released && releasedAt == 0 && StarterDiagnostics.isEnabled()) {
+            onReleased();
+        }
+        return released;
+    }
+
+    /**
+     * Records the time the object of the starter is released, e.g. the activity is destroyed, if
+     * not recorded yet.
+     */
+    final void onReleased() {
+        if (releasedAt == 0) {
+            releasedAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * Returns the time the starter first observed its object released.
+     *
+     * @return The time in nanoseconds, or <code>0</code> if not observed yet
+     */
+    final long getReleasedAt() {
+        return releasedAt;
+    }
+
     @Override
     public int getEnter() {
-        return enterId;
+        return defaultTransition ? getDefaultEnter() : enterId;
     }
 
     @Override
     public int getExit() {
-        return exitId;
+        return defaultTransition ? getDefaultExit() : exitId;
     }
 
     /**
@@ -172,4 +255,14 @@ public abstract class AbstractStarter<T> implements Starter {
      * @param starter The starter to start activity
      */
     protected abstract void exit(T starter);
+
+    /**
+     * Test if the given starter is going away.
+     *
+     * @param starter The starter to start activity
+     * @return <code>true</code> if going away, otherwise <code>false</code>.
+     */
+    protected boolean isReleased(T starter) {
+        return false;
+    }
 }
@@ -29,6 +29,9 @@ import android.os.Bundle;
 import android.support.annotation.AnimRes;
 import android.support.v4.app.ActivityCompat;
 
+import static android.os.Build.VERSION.SDK_INT;
+import static android.os.Build.VERSION_CODES.JELLY_BEAN_MR1;
+
 /**
  * The activity starter to start activities.
  */
@@ -74,6 +77,11 @@ class ActivityStarter extends AbstractStarter<Activity> {
         return starter;
     }
 
+    @Override
+    protected boolean isReleased(Activity starter) {
+        return starter.isFinishing() || SDK_INT >= JELLY_BEAN_MR1 && starter.isDestroyed();
+    }
+
     @Override
     protected void exit(Activity starter)
     {
@@ -31,6 +31,9 @@ import android.support.v4.app.ActivityCompat;
 import android.support.v4.app.DialogFragment;
 import android.support.v4.app.Fragment;
 
+import static android.os.Build.VERSION.SDK_INT;
+import static android.os.Build.VERSION_CODES.JELLY_BEAN_MR1;
+
 /**
  * The fragment starter to start activities.
  */
@@ -80,6 +83,12 @@ class FragmentStarter extends AbstractStarter<Fragment> {
         return starter.getActivity();
     }
 
+    @Override
+    protected boolean isReleased(Fragment starter) {
+        Activity activity = starter.getActivity();
+        return activity == null || activity.isFinishing() || SDK_INT >= JELLY_BEAN_MR1 && activity.isDestroyed();
+    }
+
     @Override
     protected void exit(Fragment starter) {
         if (starter instanceof DialogFragment) {
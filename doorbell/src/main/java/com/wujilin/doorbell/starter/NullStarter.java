@@ -43,6 +43,11 @@ class NullStarter extends AbstractStarter<Object> {
         super(starter);
     }
 
+    @Override
+    public boolean isReleased() {
+        return false;
+    }
+
     @Override
     public void startActivity(Object starter, Intent intent, Bundle options) {
         // do nothing
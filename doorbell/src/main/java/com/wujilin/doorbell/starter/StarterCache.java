@@ -0,0 +1,196 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.starter;
+
+import com.wujilin.doorbell.Starter;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/**
+ * The cache of the starters keyed by the identities of the objects to start activities. <br /><br />
+ *
+ * The objects are weakly held and the starters only hold weak references to them, so the cache
+ * never keeps a destroyed activity alive. The entries of the collected objects are removed through
+ * a {@link ReferenceQueue} when the cache is accessed.
+ *
+ * @param <T> The type of the objects to start activities
+ */
+abstract class StarterCache<T> {
+
+    /**
+     * The initial capacity of the table, must be a power of two
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The queue of the collected objects
+     */
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+
+    /**
+     * The table of the entries
+     */
+    private Entry[] table = new Entry[INITIAL_CAPACITY];
+
+    /**
+     * The number of the entries
+     */
+    private int size;
+
+    /**
+     * Returns the starter of the given object, creates it if absent.
+     *
+     * @param object The object to start activities
+     * @return The starter
+     */
+    synchronized Starter get(T object) {
+        expunge();
+        int hash = System.identityHashCode(object);
+        for (Entry entry = table[indexOf(hash, table.length)]; entry != null; entry = entry.next) {
+            if (entry.hash == hash && entry.get() == object) {
+                return entry.starter;
+            }
+        }
+        Starter starter = create(object);
+        if (size >= table.length * 3 / 4) {
+            resize();
+        }
+        int index    = indexOf(hash, table.length);
+        table[index] = new Entry(object, hash, starter, table[index], queue);
+        size++;
+        return starter;
+    }
+
+    /**
+     * Returns the number of the cached starters, including the ones of the collected objects not
+     * removed yet.
+     *
+     * @return The number of the cached starters
+     */
+    synchronized int size() {
+        expunge();
+        return size;
+    }
+
+    /**
+     * Creates a new starter of the given object.
+     *
+     * @param object The object to start activities
+     * @return The starter
+     */
+    protected abstract Starter create(T object);
+
+    /**
+     * Removes the entries of the collected objects.
+     */
+    private void expunge() {
+        Object reference;
+        while ((reference = queue.poll()) != null) {
+            Entry expunged = (Entry) reference;
+            int index      = indexOf(expunged.hash, table.length);
+            Entry previous = null;
+            for (Entry entry = table[index]; entry != null; previous = entry, entry = entry.next) {
+                if (entry != expunged) {
+                    continue;
+                }
+                if (previous == null) {
+                    table[index] = entry.next;
+                } else {
+                    previous.next = entry.next;
+                }
+                entry.next    = null;
+                entry.starter = null;
+                size--;
+                break;
+            }
+        }
+    }
+
+    /**
+     * Doubles the capacity of the table.
+     */
+    private void resize() {
+        Entry[] resized = new Entry[table.length * 2];
+        for (Entry head : table) {
+            Entry entry = head;
+            while (entry != null) {
+                Entry next     = entry.next;
+                int index      = indexOf(entry.hash, resized.length);
+                entry.next     = resized[index];
+                resized[index] = entry;
+                entry          = next;
+            }
+        }
+        table = resized;
+    }
+
+    /**
+     * Returns the index of the given hash in the table of the given length.
+     *
+     * @param hash   The identity hash code
+     * @param length The length of the table
+     * @return The index
+     */
+    private static int indexOf(int hash, int length) {
+        return (hash ^ (hash >>> 16)) & (length - 1);
+    }
+
+    /**
+     * The entry of the cache weakly holding the object.
+     */
+    private static final class Entry extends WeakReference<Object> {
+
+        /**
+         * The identity hash code of the object
+         */
+        final int hash;
+
+        /**
+         * The starter of the object
+         */
+        Starter starter;
+
+        /**
+         * The next entry of the same bucket
+         */
+        Entry next;
+
+        /**
+         * Constructs a new entry.
+         *
+         * @param object  The object to start activities
+         * @param hash    The identity hash code of the object
+         * @param starter The starter of the object
+         * @param next    The next entry of the same bucket
+         * @param queue   The queue of the collected objects
+         */
+        Entry(Object object, int hash, Starter starter, Entry next, ReferenceQueue<Object> queue) {
+            super(object, queue);
+            this.hash    = hash;
+            this.starter = starter;
+            this.next    = next;
+        }
+    }
+}
@@ -0,0 +1,437 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.starter;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+import android.support.v4.app.Fragment;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static android.os.Build.VERSION.SDK_INT;
+import static android.os.Build.VERSION_CODES.ICE_CREAM_SANDWICH;
+
+/**
+ * The opt-in diagnostics of the starters. <br /><br />
+ *
+ * The starters only weakly hold the activities and fragments, so the navigations requested after
+ * they have been collected are dropped silently. When enabled, the diagnostics count the dropped
+ * calls per starter type and track the objects to start activities through a {@link ReferenceQueue}
+ * to report how long they lived and which ones are kept alive after going away. <br /><br />
+ *
+ * An object is flagged as leaked when it has been released, that is finishing, destroyed or
+ * detached, for longer than the leak threshold but is still reachable. The release time is recorded
+ * when the starter first observes it, or when the activity is destroyed through the activity
+ * lifecycle callbacks where available, so a destroyed activity is timed from its destruction rather
+ * than from the first snapshot. The check runs only when a snapshot is taken, nothing is logged per
+ * call, and the starters created while disabled are not tracked.
+ */
+public final class StarterDiagnostics {
+
+    /**
+     * The default leak threshold in nanoseconds
+     */
+    private static final long DEFAULT_LEAK_THRESHOLD = TimeUnit.SECONDS.toNanos(10);
+
+    /**
+     * Whether the diagnostics is enabled
+     */
+    private static volatile boolean enabled;
+
+    /**
+     * The leak threshold in nanoseconds
+     */
+    private static volatile long leakThreshold = DEFAULT_LEAK_THRESHOLD;
+
+    /**
+     * The counters keyed by the starter types
+     */
+    private static final ConcurrentMap<Class<?>, Counters> COUNTERS = new ConcurrentHashMap<>();
+
+    /**
+     * The queue of the collected objects
+     */
+    private static final ReferenceQueue<Object> QUEUE = new ReferenceQueue<>();
+
+    /**
+     * The tracked objects not collected yet, guarded by itself
+     */
+    private static final Set<Tracked> TRACKED = new HashSet<>();
+
+    /**
+     * Whether the lifecycle callbacks are registered to the application, guarded by the tracked
+     * objects
+     */
+    private static boolean watching;
+
+    /**
+     * Preventing from constructing.
+     */
+    private StarterDiagnostics() {
+    }
+
+    /**
+     * Enables the diagnostics, the starters created from now on are tracked.
+     */
+    public static void enable() {
+        enabled = true;
+    }
+
+    /**
+     * Disables the diagnostics, the collected statistics are kept until {@link #reset()}.
+     */
+    public static void disable() {
+        enabled = false;
+    }
+
+    /**
+     * Test if the diagnostics is enabled.
+     *
+     * @return <code>true</code> if enabled, otherwise <code>false</code>.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets how long an object may stay reachable after being released before flagged as leaked.
+     *
+     * @param threshold The leak threshold
+     * @param unit      The unit of the threshold
+     */
+    public static void setLeakThreshold(long threshold, TimeUnit unit) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("threshold < 0: " + threshold);
+        }
+        leakThreshold = unit.toNanos(threshold);
+    }
+
+    /**
+     * Returns the statistics of the starter types seen so far.
+     *
+     * @return The statistics keyed by the starter types
+     */
+    public static Map<Class<?>, StarterStats> snapshot() {
+        long now                     = System.nanoTime();
+        long threshold               = leakThreshold;
+        Map<Class<?>, long[]> leaked = new LinkedHashMap<>();
+        synchronized (TRACKED) {
+            expunge(now);
+            for (Tracked tracked : TRACKED) {
+                Object object = tracked.get();
+                if (object == null) {
+                    continue;
+                }
+                long releasedAt = tracked.starter.getReleasedAt();
+                if (releasedAt == 0) {
+                    if (tracked.starter.isReleased()) {
+                        // released while the diagnostics is disabled
+                        tracked.starter.onReleased();
+                    }
+                    continue;
+                }
+                if (now - releasedAt >= threshold) {
+                    long[] count = leaked.get(tracked.counters.type);
+                    if (count == null) {
+                        leaked.put(tracked.counters.type, count = new long[1]);
+                    }
+                    count[0]++;
+                }
+            }
+        }
+        Map<Class<?>, StarterStats> stats = new LinkedHashMap<>();
+        for (Counters counters : COUNTERS.values()) {
+            long[] count = leaked.get(counters.type);
+            stats.put(counters.type, counters.snapshot(count == null ? 0 : count[0]));
+        }
+        return Collections.unmodifiableMap(stats);
+    }
+
+    /**
+     * Clears the collected statistics and stops tracking the objects.
+     */
+    public static void reset() {
+        synchronized (TRACKED) {
+            while (QUEUE.poll() != null) {
+                // Drains the queue of the objects tracked before.
+            }
+            for (Tracked tracked : TRACKED) {
+                tracked.clear();
+            }
+            TRACKED.clear();
+            COUNTERS.clear();
+        }
+    }
+
+    /**
+     * Starts tracking the object of the given starter.
+     *
+     * @param starter The starter
+     * @param object  The object to start activities
+     */
+    static void track(AbstractStarter<?> starter, Object object) {
+        if (object == null) {
+            return;
+        }
+        long now          = System.nanoTime();
+        Counters counters = counters(starter.getClass());
+        synchronized (TRACKED) {
+            expunge(now);
+            TRACKED.add(new Tracked(object, starter, counters, now, QUEUE));
+            watch(object);
+        }
+        counters.tracked.incrementAndGet();
+    }
+
+    /**
+     * Registers the lifecycle callbacks to the application of the activity or the fragment if not
+     * registered, must hold the lock of the tracked objects.
+     *
+     * @param object The object to start activities
+     */
+    private static void watch(Object object) {
+        if (watching || SDK_INT < ICE_CREAM_SANDWICH) {
+            return;
+        }
+        Activity activity = null;
+        if (object instanceof Activity) {
+            activity = (Activity) object;
+        } else if (object instanceof Fragment) {
+            activity = ((Fragment) object).getActivity();
+        }
+        Application application = activity == null ? null : activity.getApplication();
+        if (application != null) {
+            application.registerActivityLifecycleCallbacks(new DestroyCallbacks());
+            watching = true;
+        }
+    }
+
+    /**
+     * Records the release time of the starters of the destroyed activity and of its fragments.
+     *
+     * @param activity The activity destroyed
+     */
+    static void destroyed(Activity activity) {
+        synchronized (TRACKED) {
+            for (Tracked tracked : TRACKED) {
+                Object object = tracked.get();
+                if (object == null) {
+                    continue;
+                }
+                if (object == activity || tracked.starter.getActivity() == activity || tracked.starter.isReleased()) {
+                    tracked.starter.onReleased();
+                }
+            }
+        }
+    }
+
+    /**
+     * Records a call dropped by the given starter because its object has been collected.
+     *
+     * @param starter The starter
+     */
+    static void dropped(AbstractStarter<?> starter) {
+        counters(starter.getClass()).dropped.incrementAndGet();
+    }
+
+    /**
+     * Returns the counters of the given starter type, creates them if absent.
+     *
+     * @param type The starter type
+     * @return The counters
+     */
+    private static Counters counters(Class<?> type) {
+        Counters counters = COUNTERS.get(type);
+        if (counters == null) {
+            Counters created = new Counters(type);
+            counters         = COUNTERS.putIfAbsent(type, created);
+            if (counters == null) {
+                counters = created;
+            }
+        }
+        return counters;
+    }
+
+    /**
+     * Removes the collected objects and records their lifetimes, must hold the lock of the tracked
+     * objects.
+     *
+     * @param now The current time in nanoseconds
+     */
+    private static void expunge(long now) {
+        Object reference;
+        while ((reference = QUEUE.poll()) != null) {
+            Tracked tracked = (Tracked) reference;
+            if (TRACKED.remove(tracked)) {
+                tracked.counters.collected.incrementAndGet();
+                tracked.counters.lifetime.addAndGet(now - tracked.createdAt);
+            }
+        }
+    }
+
+    /**
+     * The counters of a starter type.
+     */
+    private static final class Counters {
+
+        /**
+         * The starter type
+         */
+        final Class<?> type;
+
+        /**
+         * The number of the tracked objects
+         */
+        final AtomicLong tracked = new AtomicLong();
+
+        /**
+         * The number of the collected objects
+         */
+        final AtomicLong collected = new AtomicLong();
+
+        /**
+         * The total lifetime of the collected objects in nanoseconds
+         */
+        final AtomicLong lifetime = new AtomicLong();
+
+        /**
+         * The number of the dropped calls
+         */
+        final AtomicLong dropped = new AtomicLong();
+
+        /**
+         * Constructs the counters.
+         *
+         * @param type The starter type
+         */
+        Counters(Class<?> type) {
+            this.type = type;
+        }
+
+        /**
+         * Returns the statistics of the counters.
+         *
+         * @param leaked The number of the leaked objects
+         * @return The statistics
+         */
+        StarterStats snapshot(long leaked) {
+            long tracked   = this.tracked.get();
+            long collected = this.collected.get();
+            return new StarterStats(tracked, collected, Math.max(tracked - collected, 0), leaked,
+                    dropped.get(), collected == 0 ? 0 : lifetime.get() / collected);
+        }
+    }
+
+    /**
+     * The weak reference to a tracked object.
+     */
+    private static final class Tracked extends WeakReference<Object> {
+
+        /**
+         * The starter of the object, which only weakly holds the object
+         */
+        final AbstractStarter<?> starter;
+
+        /**
+         * The counters of the starter type
+         */
+        final Counters counters;
+
+        /**
+         * The time of tracking in nanoseconds
+         */
+        final long createdAt;
+
+        /**
+         * Constructs a tracked object.
+         *
+         * @param object    The object to start activities
+         * @param starter   The starter of the object
+         * @param counters  The counters of the starter type
+         * @param createdAt The time of tracking in nanoseconds
+         * @param queue     The queue of the collected objects
+         */
+        Tracked(Object object, AbstractStarter<?> starter, Counters counters, long createdAt,
+                ReferenceQueue<Object> queue) {
+            super(object, queue);
+            this.starter   = starter;
+            this.counters  = counters;
+            this.createdAt = createdAt;
+        }
+    }
+
+    /**
+     * The lifecycle callbacks record the release time of the destroyed activities.
+     */
+    private static final class DestroyCallbacks implements Application.ActivityLifecycleCallbacks {
+
+        @Override
+        public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+            // do nothing
+        }
+
+        @Override
+        public void onActivityStarted(Activity activity) {
+            // do nothing
+        }
+
+        @Override
+        public void onActivityResumed(Activity activity) {
+            // do nothing
+        }
+
+        @Override
+        public void onActivityPaused(Activity activity) {
+            // do nothing
+        }
+
+        @Override
+        public void onActivityStopped(Activity activity) {
+            // do nothing
+        }
+
+        @Override
+        public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+            // do nothing
+        }
+
+        @Override
+        public void onActivityDestroyed(Activity activity) {
+            if (isEnabled()) {
+                destroyed(activity);
+            }
+        }
+    }
+}
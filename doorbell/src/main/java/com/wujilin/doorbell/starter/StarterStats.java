@@ -0,0 +1,148 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.starter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The statistics of a starter type reported by {@link StarterDiagnostics}.
+ */
+public final class StarterStats {
+
+    /**
+     * The number of the tracked objects
+     */
+    private final long trackedCount;
+
+    /**
+     * The number of the collected objects
+     */
+    private final long collectedCount;
+
+    /**
+     * The number of the objects not collected yet
+     */
+    private final long liveCount;
+
+    /**
+     * The number of the objects kept alive after going away
+     */
+    private final long leakedCount;
+
+    /**
+     * The number of the calls dropped since the objects have been collected
+     */
+    private final long droppedCount;
+
+    /**
+     * The average lifetime of the collected objects in nanoseconds
+     */
+    private final long averageLifetime;
+
+    /**
+     * Constructs the statistics.
+     *
+     * @param trackedCount    The number of the tracked objects
+     * @param collectedCount  The number of the collected objects
+     * @param liveCount       The number of the objects not collected yet
+     * @param leakedCount     The number of the objects kept alive after going away
+     * @param droppedCount    The number of the dropped calls
+     * @param averageLifetime The average lifetime of the collected objects in nanoseconds
+     */
+    StarterStats(long trackedCount, long collectedCount, long liveCount, long leakedCount,
+                 long droppedCount, long averageLifetime) {
+        this.trackedCount    = trackedCount;
+        this.collectedCount  = collectedCount;
+        this.liveCount       = liveCount;
+        this.leakedCount     = leakedCount;
+        this.droppedCount    = droppedCount;
+        this.averageLifetime = averageLifetime;
+    }
+
+    /**
+     * Returns the number of the tracked objects.
+     *
+     * @return The number of the tracked objects
+     */
+    public long getTrackedCount() {
+        return trackedCount;
+    }
+
+    /**
+     * Returns the number of the collected objects.
+     *
+     * @return The number of the collected objects
+     */
+    public long getCollectedCount() {
+        return collectedCount;
+    }
+
+    /**
+     * Returns the number of the objects not collected yet.
+     *
+     * @return The number of the live objects
+     */
+    public long getLiveCount() {
+        return liveCount;
+    }
+
+    /**
+     * Returns the number of the objects released longer than the leak threshold but still reachable.
+     *
+     * @return The number of the leaked objects
+     */
+    public long getLeakedCount() {
+        return leakedCount;
+    }
+
+    /**
+     * Returns the number of the calls dropped since the objects have been collected.
+     *
+     * @return The number of the dropped calls
+     */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * Returns the average lifetime of the collected objects.
+     *
+     * @param unit The unit of the lifetime
+     * @return The average lifetime
+     */
+    public long getAverageLifetime(TimeUnit unit) {
+        return unit.convert(averageLifetime, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return "StarterStats{tracked=" + trackedCount
+                + ", collected=" + collectedCount
+                + ", live=" + liveCount
+                + ", leaked=" + leakedCount
+                + ", dropped=" + droppedCount
+                + ", averageLifetimeMs=" + getAverageLifetime(TimeUnit.MILLISECONDS)
+                + '}';
+    }
+}
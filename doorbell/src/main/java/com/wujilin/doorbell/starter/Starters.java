@@ -40,12 +40,84 @@ public final class Starters {
      */
     public static final Starter STARTER_NULL = new NullStarter(null);
 
+    /**
+     * The cached context starters
+     */
+    private static final StarterCache<Context> CONTEXT_STARTERS = new StarterCache<Context>() {
+        @Override
+        protected Starter create(Context context) {
+            return new ContextStarter(context);
+        }
+    };
+
+    /**
+     * The cached activity starters
+     */
+    private static final StarterCache<Activity> ACTIVITY_STARTERS = new StarterCache<Activity>() {
+        @Override
+        protected Starter create(Activity activity) {
+            return new ActivityStarter(activity);
+        }
+    };
+
+    /**
+     * The cached fragment starters
+     */
+    private static final StarterCache<Fragment> FRAGMENT_STARTERS = new StarterCache<Fragment>() {
+        @Override
+        protected Starter create(Fragment fragment) {
+            return new FragmentStarter(fragment);
+        }
+    };
+
     /**
      * Preventing from constructing.
      */
     private Starters() {
     }
 
+    /**
+     * Returns the cached context starter of the given context, creates it if absent. The context is
+     * weakly held by the cache.
+     *
+     * @param context The context to start activities
+     * @return The context starter
+     */
+    public static Starter getStarter(Context context) {
+        if (context == null) {
+            return newStarter(context);
+        }
+        return CONTEXT_STARTERS.get(context);
+    }
+
+    /**
+     * Returns the cached activity starter of the given activity, creates it if absent. The activity
+     * is weakly held by the cache.
+     *
+     * @param activity The activity to start activity
+     * @return The activity starter
+     */
+    public static Starter getStarter(Activity activity) {
+        if (activity == null) {
+            return newStarter(activity);
+        }
+        return ACTIVITY_STARTERS.get(activity);
+    }
+
+    /**
+     * Returns the cached fragment starter of the given fragment, creates it if absent. The fragment
+     * is weakly held by the cache.
+     *
+     * @param fragment The fragment to start activity
+     * @return The fragment starter
+     */
+    public static Starter getStarter(Fragment fragment) {
+        if (fragment == null) {
+            return newStarter(fragment);
+        }
+        return FRAGMENT_STARTERS.get(fragment);
+    }
+
     /**
      * Creates a new context starter.
      *
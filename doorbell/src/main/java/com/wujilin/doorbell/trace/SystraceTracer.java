@@ -0,0 +1,101 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.trace;
+
+import android.os.Trace;
+
+import static android.os.Build.VERSION.SDK_INT;
+import static android.os.Build.VERSION_CODES.JELLY_BEAN_MR2;
+import static com.wujilin.doorbell.metrics.RingMetrics.PHASE_COUNT;
+
+/**
+ * The tracer writes the phases of the ringing as the sections of {@link Trace}, which are shown by
+ * systrace and Perfetto, and forwards the phases to another tracer if given. <br /><br />
+ *
+ * The sections are written on Android 4.3 and above only.
+ *
+ * <pre>
+ * Doorbell.setTracer(new SystraceTracer(new TraceBuffer(4096)));
+ * </pre>
+ */
+public class SystraceTracer implements RingTracer {
+
+    /**
+     * Whether the sections are supported
+     */
+    private static final boolean SUPPORTED = SDK_INT >= JELLY_BEAN_MR2;
+
+    /**
+     * The names of the sections of the phases
+     */
+    private static final String[] SECTION_NAMES = new String[PHASE_COUNT];
+
+    static {
+        for (int i = 0; i < SECTION_NAMES.length; i++) {
+            SECTION_NAMES[i] = "Doorbell:" + TraceBuffer.getPhaseName(i);
+        }
+    }
+
+    /**
+     * The tracer to forward the phases to, or <code>null</code> if none
+     */
+    private final RingTracer delegate;
+
+    /**
+     * Constructs a new systrace tracer.
+     */
+    public SystraceTracer() {
+        this(null);
+    }
+
+    /**
+     * Constructs a new systrace tracer forwarding the phases to the given tracer.
+     *
+     * @param delegate The tracer to forward the phases to, or <code>null</code> if none
+     */
+    public SystraceTracer(RingTracer delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void begin(Object door, int phase) {
+        if (SUPPORTED) {
+            Trace.beginSection(phase >= 0 && phase < SECTION_NAMES.length
+                    ? SECTION_NAMES[phase] : "Doorbell:" + TraceBuffer.getPhaseName(phase));
+        }
+        if (delegate != null) {
+            delegate.begin(door, phase);
+        }
+    }
+
+    @Override
+    public void end(Object door, int phase) {
+        if (delegate != null) {
+            delegate.end(door, phase);
+        }
+        if (SUPPORTED) {
+            Trace.endSection();
+        }
+    }
+}
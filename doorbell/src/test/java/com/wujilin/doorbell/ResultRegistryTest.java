@@ -0,0 +1,111 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell;
+
+import android.app.Activity;
+import android.content.Intent;
+
+import com.wujilin.doorbell.starter.Starters;
+
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests the result listeners never keep the destroyed activities alive.
+ */
+public class ResultRegistryTest {
+
+    /**
+     * The maximum number of the garbage collections to wait for
+     */
+    private static final int MAX_GC_ATTEMPTS = 50;
+
+    @Test
+    public void releaseListenerOfDestroyedActivity() {
+        Activity activity = new Activity();
+        int requestCode   = ResultRegistry.register(Starters.newStarter(activity), new HostListener(activity));
+
+        ResultRegistry.releaseDestroyed(activity);
+        assertFalse(ResultRegistry.dispatch(requestCode, Activity.RESULT_OK, null));
+    }
+
+    @Test
+    public void destroyedActivityIsNotPinned() {
+        Activity activity                 = new Activity();
+        int requestCode                   = ResultRegistry.register(Starters.newStarter(activity),
+                new HostListener(activity));
+        WeakReference<Activity> reference = new WeakReference<>(activity);
+
+        // the activity is destroyed by a configuration change, and a new one takes its place
+        ResultRegistry.releaseDestroyed(activity);
+        activity = null;
+        for (int i = 0; i < MAX_GC_ATTEMPTS && reference.get() != null; i++) {
+            gc();
+        }
+        assertNull(reference.get());
+        assertFalse(ResultRegistry.dispatch(requestCode, Activity.RESULT_OK, null));
+    }
+
+    /**
+     * Runs the garbage collection and waits a moment.
+     */
+    private static void gc() {
+        System.gc();
+        System.runFinalization();
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The listener references its host, like an anonymous class declared in the activity.
+     */
+    private static class HostListener implements OnResultListener {
+
+        /**
+         * The host of the listener
+         */
+        private final Activity host;
+
+        /**
+         * Constructs a new listener.
+         *
+         * @param host The host of the listener
+         */
+        HostListener(Activity host) {
+            this.host = host;
+        }
+
+        @Override
+        public void onResult(int resultCode, Intent data) {
+            host.finish();
+        }
+    }
+}
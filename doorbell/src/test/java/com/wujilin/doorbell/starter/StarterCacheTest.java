@@ -0,0 +1,115 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.starter;
+
+import android.app.Activity;
+
+import com.wujilin.doorbell.Starter;
+
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests the cached starters never keep the destroyed activities alive.
+ */
+public class StarterCacheTest {
+
+    /**
+     * The maximum number of the garbage collections to wait for
+     */
+    private static final int MAX_GC_ATTEMPTS = 50;
+
+    @Test
+    public void reuseStarterOfSameActivity() {
+        Activity activity = new Activity();
+        assertSame(Starters.getStarter(activity), Starters.getStarter(activity));
+    }
+
+    @Test
+    public void cachedStarterDoesNotPinActivity() {
+        Activity activity                 = new Activity();
+        Starter starter                   = Starters.getStarter(activity);
+        WeakReference<Activity> reference = new WeakReference<>(activity);
+
+        // the activity is destroyed, while the starter is still held by the caller
+        activity = null;
+        awaitCollected(reference);
+        assertNull(reference.get());
+        assertNull(starter.getActivity());
+    }
+
+    @Test
+    public void expungeEntriesOfCollectedActivities() {
+        StarterCache<Activity> cache = new StarterCache<Activity>() {
+            @Override
+            protected Starter create(Activity activity) {
+                return new ActivityStarter(activity);
+            }
+        };
+        Activity kept = new Activity();
+        cache.get(kept);
+
+        WeakReference<Activity> last = null;
+        for (int i = 0; i < 100; i++) {
+            Activity activity = new Activity();
+            cache.get(activity);
+            last = new WeakReference<>(activity);
+        }
+        awaitCollected(last);
+        for (int i = 0; i < MAX_GC_ATTEMPTS && cache.size() > 1; i++) {
+            gc();
+        }
+        assertEquals(1, cache.size());
+        assertSame(cache.get(kept), cache.get(kept));
+    }
+
+    /**
+     * Runs the garbage collection until the referent of the given reference is collected.
+     *
+     * @param reference The reference to the object to collect
+     */
+    private static void awaitCollected(WeakReference<?> reference) {
+        for (int i = 0; i < MAX_GC_ATTEMPTS && reference.get() != null; i++) {
+            gc();
+        }
+    }
+
+    /**
+     * Runs the garbage collection and waits a moment for the references to be enqueued.
+     */
+    private static void gc() {
+        System.gc();
+        System.runFinalization();
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
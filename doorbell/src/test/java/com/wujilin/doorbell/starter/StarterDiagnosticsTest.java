@@ -0,0 +1,90 @@
+/*
+The MIT License (MIT)
+
+Copyright (c) 2015 Belin Wu (http://wujilin.com)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package com.wujilin.doorbell.starter;
+
+import android.app.Activity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the destroyed activities still reachable are flagged as leaked.
+ */
+public class StarterDiagnosticsTest {
+
+    @Before
+    public void setUp() {
+        StarterDiagnostics.reset();
+        StarterDiagnostics.enable();
+        StarterDiagnostics.setLeakThreshold(0, TimeUnit.NANOSECONDS);
+    }
+
+    @After
+    public void tearDown() {
+        StarterDiagnostics.disable();
+        StarterDiagnostics.setLeakThreshold(10, TimeUnit.SECONDS);
+        StarterDiagnostics.reset();
+    }
+
+    @Test
+    public void flagDestroyedActivityOnFirstSnapshot() {
+        Activity activity = new Activity();
+        Starters.newStarter(activity);
+        assertEquals(0, leaked());
+
+        // the activity is destroyed, e.g. by a configuration change, but is still reachable
+        StarterDiagnostics.destroyed(activity);
+        assertEquals(1, leaked());
+    }
+
+    @Test
+    public void recordReleaseObservedByStarter() {
+        final boolean[] destroyed = new boolean[1];
+        Activity activity         = new Activity() {
+            @Override
+            public boolean isFinishing() {
+                return destroyed[0];
+            }
+        };
+        AbstractStarter<?> starter = (AbstractStarter<?>) Starters.newStarter(activity);
+        destroyed[0]               = true;
+        starter.isReleased();
+        assertEquals(1, leaked());
+    }
+
+    /**
+     * Returns the number of the leaked activities.
+     *
+     * @return The number of the leaked activities
+     */
+    private static long leaked() {
+        StarterStats stats = StarterDiagnostics.snapshot().get(ActivityStarter.class);
+        return stats == null ? 0 : stats.getLeakedCount();
+    }
+}